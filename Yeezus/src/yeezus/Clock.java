@@ -0,0 +1,67 @@
+package yeezus;
+
+/**
+ * <p>The source of time for every timing measurement in the {@link yeezus} operating system. By default, it reads the
+ * host's {@link System#nanoTime()}. When it is switched to logical time for a simulated run, see {@link
+ * yeezus.driver.Driver#simulate()}, time only moves when the simulation advances it, so every measurement of the run
+ * is exactly reproducible.</p><p>Logical time is counted in cycles, and a cycle is treated as a nanosecond, so every
+ * measurement reads the same way in both modes.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public enum Clock {
+
+	/**
+	 * This ensures that there's only a single instance.
+	 */
+	INSTANCE;
+
+	private volatile boolean logical = false;
+	private volatile long time = 0;
+
+	/**
+	 * Retrieves the current time.
+	 *
+	 * @return The host's {@link System#nanoTime()}, or the logical time in cycles if this clock uses logical time.
+	 */
+	public long nanoTime() {
+		return this.logical ? this.time : System.nanoTime();
+	}
+
+	/**
+	 * Checks if this clock uses logical time.
+	 *
+	 * @return {@code true} if time only moves when it is advanced.
+	 */
+	public boolean isLogical() {
+		return this.logical;
+	}
+
+	/**
+	 * Switches this clock between the host's time and logical time. Logical time always starts from {@code 0}.
+	 *
+	 * @param logical {@code true} to use logical time.
+	 */
+	public synchronized void setLogical( boolean logical ) {
+		this.logical = logical;
+		this.time = 0;
+	}
+
+	/**
+	 * Moves logical time forward.
+	 *
+	 * @param time The new logical time in cycles.
+	 * @throws IllegalStateException    Thrown if this clock doesn't use logical time.
+	 * @throws IllegalArgumentException Thrown if the time is earlier than the current logical time.
+	 */
+	public synchronized void advanceTo( long time ) {
+		if ( !this.logical ) {
+			throw new IllegalStateException( "Only logical time can be advanced." );
+		}
+		if ( time < this.time ) {
+			throw new IllegalArgumentException( "Logical time can't move backwards." );
+		}
+		this.time = time;
+	}
+}
@@ -0,0 +1,121 @@
+package yeezus;
+
+/**
+ * <p>A thread safe histogram of non-negative measurements, such as queue depths or times. Values are counted in
+ * buckets whose bounds are powers of two, so recording a value takes constant time and space no matter how large it
+ * is, at the cost of only knowing each value to within a factor of two.</p><p>Bucket {@code 0} counts the value {@code
+ * 0}, and bucket {@code i} counts the values from {@code 2^(i - 1)} up to, but not including, {@code 2^i}.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class Histogram {
+
+	private static final int BUCKETS = 64;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count = 0, sum = 0, max = 0;
+
+	/**
+	 * Records a measurement.
+	 *
+	 * @param value The measured value. Negative values are counted as {@code 0}.
+	 */
+	public synchronized void record( long value ) {
+		value = Math.max( 0, value );
+		this.counts[bucket( value )]++;
+		this.count++;
+		this.sum += value;
+		this.max = Math.max( this.max, value );
+	}
+
+	/**
+	 * Retrieves the amount of recorded measurements.
+	 *
+	 * @return The amount of measurements.
+	 */
+	public synchronized long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Retrieves the exact average of the recorded measurements.
+	 *
+	 * @return The mean, or {@code 0} if nothing has been recorded.
+	 */
+	public synchronized double getMean() {
+		return this.count == 0 ? 0 : (double) this.sum / this.count;
+	}
+
+	/**
+	 * Retrieves the largest recorded measurement.
+	 *
+	 * @return The maximum, or {@code 0} if nothing has been recorded.
+	 */
+	public synchronized long getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Retrieves an upper bound on the given percentile of the recorded measurements, which is the upper bound of the
+	 * bucket that the percentile falls in, or the maximum if that is lower.
+	 *
+	 * @param percentile The percentile, between {@code 0} and {@code 100}.
+	 * @return The upper bound of the percentile, or {@code 0} if nothing has been recorded.
+	 */
+	public synchronized long getPercentile( double percentile ) {
+		if ( percentile < 0 || percentile > 100 ) {
+			throw new IllegalArgumentException( "A percentile must be between 0 and 100." );
+		}
+		long rank = (long) Math.ceil( percentile / 100 * this.count );
+		long seen = 0;
+		for ( int i = 0; i < BUCKETS; i++ ) {
+			seen += this.counts[i];
+			if ( seen >= rank && seen > 0 ) {
+				return Math.min( this.max, upperBound( i ) );
+			}
+		}
+		return this.max;
+	}
+
+	/**
+	 * Retrieves the amount of measurements counted in a bucket.
+	 *
+	 * @param bucket The index of the bucket.
+	 * @return The amount of measurements in the bucket.
+	 */
+	public synchronized long getBucketCount( int bucket ) {
+		return this.counts[bucket];
+	}
+
+	/**
+	 * Lists every non-empty bucket on a line of its own, with the range of values it counts.
+	 *
+	 * @return The buckets of this histogram.
+	 */
+	@Override public synchronized String toString() {
+		StringBuilder string = new StringBuilder();
+		for ( int i = 0; i < BUCKETS; i++ ) {
+			if ( this.counts[i] > 0 ) {
+				string.append( i == 0 ? "0" : "[" + ( upperBound( i - 1 ) + 1 ) + ", " + upperBound( i ) + "]" )
+						.append( ": " ).append( this.counts[i] ).append( "\n" );
+			}
+		}
+		return string.toString();
+	}
+
+	/**
+	 * Retrieves the bucket that counts the given value.
+	 *
+	 * @param value A non-negative value.
+	 * @return The index of the bucket.
+	 */
+	static int bucket( long value ) {
+		return BUCKETS - Long.numberOfLeadingZeros( value );
+	}
+
+	// The largest value counted by a bucket
+	private static long upperBound( int bucket ) {
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : ( 1L << bucket ) - 1;
+	}
+}
@@ -0,0 +1,124 @@
+package yeezus;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>How a thread of the {@link yeezus} operating system waits while it has nothing to do: a CPU thread waiting for a
+ * process, or the {@link yeezus.driver.Driver}'s thread waiting for an event. See {@link
+ * yeezus.driver.Driver#setIdleStrategy(IdleStrategy, IdleStrategy)}.</p><p>The strategies trade the host's CPU time
+ * for wake-up latency. A thread that blocks uses no CPU time while it waits, but has to be rescheduled by the host when
+ * it is woken up. A thread that spins notices new work at once, but keeps a host core busy the whole time. The
+ * strategies in between give the core back for a while after every check.</p><p>A waiting thread calls {@link
+ * IdleStrategy#idle(int)} repeatedly, and checks for work after every call.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public enum IdleStrategy {
+
+	/**
+	 * Parks the thread until it is woken up. This uses no CPU time while waiting.
+	 */
+	BLOCK {
+		@Override public void idle( int attempts ) {
+			LockSupport.park();
+		}
+
+		@Override public boolean isBlocking() {
+			return true;
+		}
+	},
+
+	/**
+	 * Returns at once, so the thread checks for work again straight away. This keeps a host core busy while waiting,
+	 * so it needs a core for every spinning thread. Otherwise, the spinning threads hold up the very threads that they
+	 * are waiting for.
+	 */
+	BUSY_SPIN {
+		@Override public void idle( int attempts ) {
+		}
+	},
+
+	/**
+	 * Yields the host core to any other thread that is ready to run, then checks for work again.
+	 */
+	YIELD {
+		@Override public void idle( int attempts ) {
+			Thread.yield();
+		}
+	},
+
+	/**
+	 * Sleeps for {@link IdleStrategy#SLEEP_NANOS} between checks, even if the thread is woken up in the meantime.
+	 */
+	SLEEP {
+		@Override public void idle( int attempts ) {
+			long end = System.nanoTime() + SLEEP_NANOS;
+			for ( long left = SLEEP_NANOS; left > 0; left = end - System.nanoTime() ) {
+				LockSupport.parkNanos( left );
+			}
+		}
+	},
+
+	/**
+	 * Spins for the first {@link IdleStrategy#BACKOFF_SPINS} checks, then yields for the next {@link
+	 * IdleStrategy#BACKOFF_YIELDS}, then parks for a time that doubles with every check, from {@link
+	 * IdleStrategy#BACKOFF_MIN_PARK_NANOS} up to {@link IdleStrategy#BACKOFF_MAX_PARK_NANOS}. A park ends early if the
+	 * thread is woken up. Short waits are noticed at once, and long waits cost little CPU time.
+	 */
+	BACKOFF {
+		@Override public void idle( int attempts ) {
+			if ( attempts < BACKOFF_SPINS ) {
+				return;
+			}
+			if ( attempts < BACKOFF_SPINS + BACKOFF_YIELDS ) {
+				Thread.yield();
+				return;
+			}
+			int parks = Math.min( attempts - BACKOFF_SPINS - BACKOFF_YIELDS, 30 );
+			LockSupport.parkNanos( Math.min( BACKOFF_MAX_PARK_NANOS, BACKOFF_MIN_PARK_NANOS << parks ) );
+		}
+	};
+
+	/**
+	 * The time in nanoseconds that {@link IdleStrategy#SLEEP} sleeps between checks.
+	 */
+	public static final long SLEEP_NANOS = 50000;
+
+	/**
+	 * The amount of checks that {@link IdleStrategy#BACKOFF} spins for.
+	 */
+	public static final int BACKOFF_SPINS = 100;
+
+	/**
+	 * The amount of checks that {@link IdleStrategy#BACKOFF} yields for, once it is done spinning.
+	 */
+	public static final int BACKOFF_YIELDS = 10;
+
+	/**
+	 * The shortest time in nanoseconds that {@link IdleStrategy#BACKOFF} parks for.
+	 */
+	public static final long BACKOFF_MIN_PARK_NANOS = 1000;
+
+	/**
+	 * The longest time in nanoseconds that {@link IdleStrategy#BACKOFF} parks for.
+	 */
+	public static final long BACKOFF_MAX_PARK_NANOS = 1000000;
+
+	/**
+	 * Waits once, before the thread checks for work again.
+	 *
+	 * @param attempts The amount of times this thread has already waited since it last found work.
+	 */
+	public abstract void idle( int attempts );
+
+	/**
+	 * Checks if this strategy only returns once the thread is woken up. If so, a thread that waits for a signal other
+	 * than a wake-up, like a {@link java.util.concurrent.Semaphore}, can block on that signal instead.
+	 *
+	 * @return {@code true} if this strategy waits to be woken up.
+	 */
+	public boolean isBlocking() {
+		return false;
+	}
+}
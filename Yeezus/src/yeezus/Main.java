@@ -8,6 +8,7 @@ import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.AreaReference;
 import org.apache.poi.xssf.usermodel.*;
 import yeezus.cpu.CPU;
+import yeezus.cpu.Interrupt;
 import yeezus.driver.CPUSchedulingPolicy;
 import yeezus.driver.Driver;
 import yeezus.memory.Memory;
@@ -21,8 +22,12 @@ import java.io.PrintStream;
 import java.net.URLDecoder;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 
 public class Main {
 
@@ -135,6 +140,8 @@ public class Main {
 			System.err.println( "An exception occurred while printing the process data." );
 			e.printStackTrace();
 		}
+		// The workbook only has the per-process and per-CPU tables, so the system metrics are always printed
+		printMetrics( driver );
 	}
 
 	public static void main( String[] args ) {
@@ -337,11 +344,125 @@ public class Main {
 		for ( PCB pcb : TaskManager.INSTANCE ) {
 			System.out.println(
 					"Process: " + pcb.getPID() + "\nWait Time (ms): " + ( pcb.getElapsedWaitTime() / 1000000 )
-							+ "\nRun Time (ms): " + ( pcb.getElapsedRunTime() / 1000000 ) + " \nCompletion time (ms): "
+							+ "\nRun Time (ms): " + ( pcb.getElapsedRunTime() / 1000000 ) + "\nResponse Time (ms): "
+							+ ( pcb.getResponseTime() / 1000000 ) + " \nCompletion time (ms): "
 							+ ( ( pcb.getElapsedRunTime() + pcb.getElapsedWaitTime() ) / 1000000 )
 							+ "\nExecution Count: " + pcb.getExecutionCount() + "\n" + "IO Count: " + pcb.getNumIO()
 							+ "\n" );
 		}
 		System.out.println( driver.getProcPerCPU() );
 	}
+
+	/**
+	 * Prints the measurements of the whole system for the last run, which aren't part of the workbook.
+	 *
+	 * @param driver The {@link Driver} of the last run.
+	 */
+	private void printMetrics( Driver driver ) {
+		System.out.println( "\nSystem Information (" + this.policy + ", " + this.numCPUs + " CPUs): " );
+		long totalTurnaround = 0, totalResponse = 0;
+		int deadlines = 0;
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			totalTurnaround += pcb.getElapsedRunTime() + pcb.getElapsedWaitTime();
+			totalResponse += pcb.getResponseTime();
+			if ( pcb.hasDeadline() ) {
+				deadlines++;
+				System.out.println( "Process " + pcb.getPID() + " Deadline (us): " + pcb.getDeadline() + ", Missed: "
+						+ pcb.missedDeadline() + ", Lateness (us): " + Math.max( 0, pcb.getLateness() )
+						+ ", Slack (us): " + Math.max( 0, -pcb.getLateness() ) );
+			}
+		}
+		int contextSwitches = 0;
+		for ( int cpuSwitches : driver.getContextSwitches() ) {
+			contextSwitches += cpuSwitches;
+		}
+		System.out.println( "\nContext Switches: " + contextSwitches + "\nAverage Context Switch Time (ns): "
+				+ driver.getAverageContextSwitchTime() );
+		int steals = 0;
+		for ( int cpuSteals : driver.getSteals() ) {
+			steals += cpuSteals;
+		}
+		System.out.println( "Average Dispatch Latency (us): " + driver.getAverageDispatchLatency() / 1000
+				+ "\nAverage Handoff Latency (ns): " + driver.getAverageHandoffLatency() + "\nSteals: " + steals );
+		int migrations = 0;
+		for ( int cpuMigrations : driver.getMigrations() ) {
+			migrations += cpuMigrations;
+		}
+		System.out.println( "Migrations: " + migrations + "\nAverage Imbalance: " + String
+				.format( "%.2f", driver.getImbalance() ) );
+		System.out.println( "Affinity Hit Rate: " + String.format( "%.1f%%", driver.getAffinityHitRate() * 100 )
+				+ "\nWarm Starts: " + driver.getWarmStarts() + "\nCache Words Saved: " + driver.getCacheWordsSaved() );
+		for ( Interrupt interrupt : Interrupt.values() ) {
+			System.out.println( interrupt + " Interrupts: " + driver.getInterrupts( interrupt ) + " (average latency "
+					+ driver.getAverageInterruptLatency( interrupt ) + " ns)" );
+		}
+		System.out.println( "Time to Full Utilization (us): " + ( driver.getRampUpTime() < 0 ? "never"
+				: String.valueOf( driver.getRampUpTime() / 1000 ) ) );
+		System.out.println( "Driver CPU Time (us): " + ( driver.getControlTime() < 0 ? "unavailable"
+				: String.valueOf( driver.getControlTime() / 1000 ) ) );
+		System.out.println( "Host CPU Time (us): " + ( driver.getHostCPUTime() < 0 ? "unavailable"
+				: String.valueOf( driver.getHostCPUTime() / 1000 ) ) );
+		System.out.println( "CPU Utilization: " + String.format( "%.1f%%", driver.getCPUUtilization() * 100 )
+				+ "\nI/O Overlap: " + String.format( "%.1f%%", driver.getIOOverlap() * 100 ) );
+		System.out.println( "Peak CPUs: " + driver.getPeakCPUs() + "\nCPU-Seconds: " + String
+				.format( "%.6f", driver.getCPUSeconds() ) + "\nThroughput (processes/s): " + String
+				.format( "%.1f", driver.getThroughput() ) + "\nProcesses per CPU-Second: " + String
+				.format( "%.1f", driver.getProcessesPerCPUSecond() ) );
+		System.out.println( "Memory Transfers: " + driver.getMemoryTransfers() + "\nAverage Burst Length (words): "
+				+ String.format( "%.2f", driver.getAverageBurstLength() ) );
+		if ( driver.getDMAQueueDepths() != null ) {
+			System.out.print( "DMA Queue Depths:\n" + driver.getDMAQueueDepths() + "DMA Service Times (ns):\n"
+					+ driver.getDMAServiceTimes() );
+		}
+		System.out.println( "Average RAM Utilization: " + String.format( "%.1f%%", driver.getRAMUtilization() * 100 ) );
+		System.out.println( "Average Turnaround Time (ms): " + ( TaskManager.INSTANCE.size() == 0 ? 0
+				: totalTurnaround / TaskManager.INSTANCE.size() / 1000000 ) + "\nAverage Response Time (ms): " + (
+				TaskManager.INSTANCE.size() == 0 ? 0 : totalResponse / TaskManager.INSTANCE.size() / 1000000 ) );
+		if ( deadlines > 0 ) {
+			System.out.println( "Deadline Misses: " + driver.getDeadlineMisses() + " of " + deadlines );
+		}
+		printWaitTimes();
+		printShares( driver );
+	}
+
+	/**
+	 * Prints the share of the CPUs achieved by each group over time, next to its target share. Nothing is printed
+	 * unless the Stride policy was used.
+	 *
+	 * @param driver The {@link Driver} of the last run.
+	 */
+	private void printShares( Driver driver ) {
+		Map<Integer, Double> targets = driver.getTargetShares();
+		if ( targets.isEmpty() ) {
+			return;
+		}
+		System.out.println( "\nGroup Shares (achieved / target): " );
+		for ( Map.Entry<Long, Map<Integer, Double>> sample : driver.getShareHistory().entrySet() ) {
+			StringBuilder line = new StringBuilder( String.format( "%6d us:", sample.getKey() / 1000 ) );
+			for ( Map.Entry<Integer, Double> target : targets.entrySet() ) {
+				line.append( String.format( "  Group %d: %.3f / %.3f", target.getKey(),
+						sample.getValue().getOrDefault( target.getKey(), 0.0 ), target.getValue() ) );
+			}
+			System.out.println( line );
+		}
+	}
+
+	/**
+	 * Prints the maximum and 99th percentile wait times of each priority class, from the highest class to the lowest.
+	 */
+	private void printWaitTimes() {
+		Map<Integer, List<Long>> classes = new TreeMap<>( Collections.reverseOrder() );
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			classes.computeIfAbsent( pcb.getPriorityClass(), c -> new ArrayList<>() ).add( pcb.getElapsedWaitTime() );
+		}
+		System.out.println( "\nWait Times by Priority Class (us): " );
+		for ( Map.Entry<Integer, List<Long>> priorityClass : classes.entrySet() ) {
+			List<Long> waits = priorityClass.getValue();
+			Collections.sort( waits );
+			// Nearest-rank percentile
+			long p99 = waits.get( (int) Math.ceil( 0.99 * waits.size() ) - 1 );
+			System.out.println( "Class " + priorityClass.getKey() + " (" + waits.size() + " processes) max: " + (
+					waits.get( waits.size() - 1 ) / 1000 ) + " p99: " + ( p99 / 1000 ) );
+		}
+	}
 }
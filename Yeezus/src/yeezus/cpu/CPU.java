@@ -1,11 +1,26 @@
 package yeezus.cpu;
 
 import com.sun.istack.internal.NotNull;
+import yeezus.Clock;
 import yeezus.DuplicateIDException;
+import yeezus.IdleStrategy;
 import yeezus.memory.*;
 import yeezus.pcb.PCB;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 /**
  * This class emulates some of the CPU's actions in the {@link yeezus} Operating System. Once it has been assigned a
@@ -17,18 +32,77 @@ import java.util.ArrayList;
  */
 public class CPU implements Runnable {
 
+	/**
+	 * The amount of executed instructions that are held in each CPU's trace.
+	 */
+	public static final int TRACE_CAPACITY = 256;
+
+	/**
+	 * <p>Set to {@code false} with the {@code yeezus.trace.disabled} system property to remove all tracing from the
+	 * CPUs.</p><p>Since this is a constant, the JIT drops the tracing checks from the execution loop entirely when it
+	 * is {@code false}, so runs that don't trace don't pay for it.</p>
+	 */
+	public static final boolean TRACE_ENABLED = !Boolean.getBoolean( "yeezus.trace.disabled" );
+
+	/**
+	 * The default amount of instructions executed between checks for signals.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	// Signals checked by the execution loop at the end of each batch
+	private static final int SHUTDOWN = 1, TRACE_LEVEL_CHANGED = 2, PREEMPT = 4, SAMPLING_CHANGED = 8;
+
 	private static final ArrayList<Integer> cpuids = new ArrayList<>();
 	private final int cpuid;
 	private final Memory registers, cache;
+	private final MMU mmu;
 	private DMAChannel dmaChannel;
+	private final AtomicInteger signals = new AtomicInteger( 0 );
+	private final InterruptController interrupts;
 	private PCB pcb;
-	private int pc;
+	private int pc, instructionsLength;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int quantum = 0, processQuantum = 0;
+	private long quantumNanos = 0;
 	private ExecutableInstruction previousInstruction;
-	private ArrayList<String> log;
-	private boolean shutdown = false;
+	private final TraceBuffer trace;
+	private final Map<Integer, TraceLevel> processTraceLevels = new ConcurrentHashMap<>();
+	private TraceLevel traceLevel = TraceLevel.FULL;
+	private volatile TraceLevel activeTraceLevel = TraceLevel.FULL;
+	private volatile int samplingInterval = 16;
+	private volatile boolean randomSampling = false;
+	// Only used on the thread running this CPU, which restarts it from the interval whenever the sampling changes
+	private int sampleCountdown = 16;
 	private long idleTime = 0;
 	private long executeTime = 0;
 	private int numProcesses = 0;
+	private int contextSwitches = 0;
+	private long contextSwitchTime = 0;
+	private Consumer<PCB> processListener;
+	private Deque<PCB> runQueue;
+	private CPU[] peers;
+	private int dispatches = 0, steals = 0;
+	private int resumes = 0, affinityHits = 0, warmStarts = 0;
+	private long cacheWordsSaved = 0;
+	private PCB cacheOwner;
+	private long dispatchLatency = 0;
+	private volatile Thread thread;
+	private volatile Executor carriers;
+	private final AtomicBoolean scheduled = new AtomicBoolean( false );
+	private final CountDownLatch stopped = new CountDownLatch( 1 );
+	private long idleSince;
+	private IdleStrategy idleStrategy = IdleStrategy.BLOCK;
+	private long hostTime = 0;
+	private long handoffStart = 0, handoffLatency = 0;
+	private int handoffs = 0;
+	private TraceLevel executionTraceLevel;
+	private int quantumUsed;
+	private long quantumEnd;
+	private CostTable costs;
+	private long batchCycles;
+	private boolean executing, batchRunning;
+	private volatile DMAEngine dmaEngine;
+	private ExecutableInstruction.IOExecutableInstruction ioRequest;
 
 	/**
 	 * Constructs a new CPU from the given parameters.
@@ -49,8 +123,10 @@ public class CPU implements Runnable {
 
 		this.registers = new Memory( registerSize );
 		this.cache = new Memory( cacheSize );
+		this.mmu = mmu;
 		this.dmaChannel = new DMAChannel( mmu, this.registers );
-		this.log = new ArrayList<>();
+		this.trace = new TraceBuffer( TRACE_CAPACITY );
+		this.interrupts = new InterruptController( this );
 	}
 
 	/**
@@ -78,40 +154,417 @@ public class CPU implements Runnable {
 		return this.idleTime;
 	}
 
+	/**
+	 * Sets how this CPU's thread waits while it has no work. This should only be done before the CPU starts running,
+	 * and doesn't apply when the CPU runs on carrier threads, which it gives back instead of waiting. See {@link
+	 * IdleStrategy}.
+	 *
+	 * @param idleStrategy The idle strategy.
+	 */
+	public void setIdleStrategy( @NotNull IdleStrategy idleStrategy ) {
+		this.idleStrategy = idleStrategy;
+	}
+
+	/**
+	 * Retrieves the CPU time of the host that this CPU's thread, or its carrier threads while they ran this CPU, used
+	 * up to the moment this CPU stopped. This includes the time spent waiting for work, which depends on the {@link
+	 * IdleStrategy}.
+	 *
+	 * @return The host CPU time in nanoseconds, or {@code 0} if the JVM can't measure it or the CPU hasn't stopped.
+	 */
+	public long getHostTime() {
+		return this.hostTime;
+	}
+
+	/**
+	 * Retrieves the trace level used for processes on this CPU that don't have their own trace level.
+	 *
+	 * @return The trace level of this CPU.
+	 */
+	public synchronized TraceLevel getTraceLevel() {
+		return this.traceLevel;
+	}
+
+	/**
+	 * Sets the trace level used for processes on this CPU that don't have their own trace level. This can be changed
+	 * while the CPU is running.
+	 *
+	 * @param traceLevel The new trace level of this CPU.
+	 */
+	public synchronized void setTraceLevel( @NotNull TraceLevel traceLevel ) {
+		this.traceLevel = traceLevel;
+		updateActiveTraceLevel();
+	}
+
+	/**
+	 * Sets the trace level used while the given process runs on this CPU, overriding the level of the CPU itself.
+	 *
+	 * @param pid        The PID of the process.
+	 * @param traceLevel The trace level for the process, or {@code null} to use the level of this CPU again.
+	 */
+	public synchronized void setTraceLevel( int pid, TraceLevel traceLevel ) {
+		if ( traceLevel == null ) {
+			this.processTraceLevels.remove( pid );
+		} else {
+			this.processTraceLevels.put( pid, traceLevel );
+		}
+		updateActiveTraceLevel();
+	}
+
+	/**
+	 * Sets how often instructions are recorded under the {@link TraceLevel#SAMPLED} trace level. This can be changed
+	 * while the CPU is running, and takes effect at the end of the current batch of instructions.
+	 *
+	 * @param interval The amount of instructions executed for every recorded instruction.
+	 * @param random   {@code true} to record instructions at random, on average once per interval, instead of every
+	 *                 {@code interval}th instruction. This keeps the samples from lining up with loops in the process.
+	 */
+	public synchronized void setSampling( int interval, boolean random ) {
+		if ( interval <= 0 ) {
+			throw new IllegalArgumentException( "The sampling interval must be positive." );
+		}
+		this.samplingInterval = interval;
+		this.randomSampling = random;
+		this.signals.getAndUpdate( signals -> signals | SAMPLING_CHANGED );
+	}
+
+	// Resolves the trace level for the current process, so that the execution loop only has to read a single field
+	private void updateActiveTraceLevel() {
+		TraceLevel level = this.pcb == null ? null : this.processTraceLevels.get( this.pcb.getPID() );
+		this.activeTraceLevel = level == null ? this.traceLevel : level;
+		this.signals.getAndUpdate( signals -> signals | TRACE_LEVEL_CHANGED );
+	}
+
 	/**
 	 * Checks if the shutdown signal has been sent to this CPU.
 	 *
 	 * @return {@code true} if this CPU has been signaled to shut down.
 	 */
-	private synchronized boolean isShutdown() {
-		return this.shutdown;
+	private boolean isShutdown() {
+		return ( this.signals.get() & SHUTDOWN ) != 0;
 	}
 
 	/**
-	 * Signals this CPU to shut down.
+	 * Signals this CPU to shut down, and wakes it up if it is idle. Once this has been called, the thread running this
+	 * CPU finishes its current batch of instructions and exits, so it can simply be joined.
 	 */
 	public synchronized void signalShutdown() {
-		this.shutdown = true;
+		this.signals.getAndUpdate( signals -> signals | SHUTDOWN );
+		wake();
+	}
+
+	/**
+	 * <p>Wakes this CPU up if it is idle, so that it checks for work again. If the CPU isn't idle yet, the next time it
+	 * runs out of work it checks again instead of going idle, so a wake up is never lost.</p><p>This is done
+	 * automatically by {@link CPU#setProcess(PCB)}, {@link CPU#enqueue(PCB)}, and {@link CPU#signalShutdown()}.</p>
+	 */
+	public void wake() {
+		Executor carriers = this.carriers;
+		if ( carriers == null ) {
+			LockSupport.unpark( this.thread );
+		} else if ( this.scheduled.compareAndSet( false, true ) ) {
+			carriers.execute( this::runSlice );
+		}
+	}
+
+	/**
+	 * <p>Starts this CPU on a pool of carrier threads that it shares with other CPUs, instead of on a thread of its own
+	 * with {@link CPU#run()}. This lets a system simulate many more CPUs than the host has threads.</p><p>While this
+	 * CPU has work, it holds one of the carrier threads. When it runs out of work, it gives the carrier thread back
+	 * instead of parking it, and it is scheduled on the pool again when it is woken up. Like a thread, a CPU isn't
+	 * interrupted while it is running a process, so a pool with fewer threads than busy CPUs runs some of the CPUs
+	 * only once others go idle.</p>
+	 *
+	 * @param carriers The pool of carrier threads.
+	 */
+	public void runOn( @NotNull Executor carriers ) {
+		this.idleSince = Clock.INSTANCE.nanoTime();
+		this.carriers = carriers;
+		wake();
+	}
+
+	/**
+	 * Waits for this CPU to stop after {@link CPU#signalShutdown()}, whether it runs on a thread of its own or on a
+	 * pool of carrier threads.
+	 *
+	 * @throws InterruptedException Thrown if the waiting thread is interrupted.
+	 */
+	public void awaitShutdown() throws InterruptedException {
+		this.stopped.await();
+	}
+
+	/**
+	 * Retrieves the amount of instructions this CPU executes between checks for signals, such as a shutdown.
+	 *
+	 * @return The amount of instructions executed in each batch.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Sets the amount of instructions this CPU executes between checks for signals, such as a shutdown, and for
+	 * interrupts. Larger batches execute faster, but the CPU takes longer to respond to signals and interrupts.
+	 *
+	 * @param batchSize The amount of instructions to execute in each batch.
+	 */
+	public void setBatchSize( int batchSize ) {
+		if ( batchSize <= 0 ) {
+			throw new IllegalArgumentException( "The batch size must be positive." );
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Sets the time quantum given to processes set with {@link CPU#setProcess(PCB)}. Once a process has executed this
+	 * many instructions, it is preempted and its status is set to {@link PCB.Status#READY}.
+	 *
+	 * @param quantum The amount of instructions in the time quantum, or {@code 0} to let processes run until they
+	 *                terminate.
+	 */
+	public void setQuantum( int quantum ) {
+		if ( quantum < 0 ) {
+			throw new IllegalArgumentException( "The time quantum cannot be negative." );
+		}
+		this.quantum = quantum;
+	}
+
+	/**
+	 * Sets a time quantum measured in nanoseconds. Once a process has run for this long, it is preempted at the end
+	 * of its current batch of instructions. This can be used along with {@link CPU#setQuantum(int)}, in which case
+	 * whichever quantum runs out first preempts the process.
+	 *
+	 * @param quantumNanos The length of the time quantum in nanoseconds, or {@code 0} to not limit processes by time.
+	 */
+	public void setQuantumNanos( long quantumNanos ) {
+		if ( quantumNanos < 0 ) {
+			throw new IllegalArgumentException( "The time quantum cannot be negative." );
+		}
+		this.quantumNanos = quantumNanos;
+	}
+
+	/**
+	 * Signals this CPU to preempt the process it is running at the end of the current batch of instructions. The
+	 * process's context is saved into its {@link PCB}, and its status is set to {@link PCB.Status#READY}.
+	 */
+	public void preempt() {
+		this.signals.getAndUpdate( signals -> signals | PREEMPT );
+	}
+
+	/**
+	 * Retrieves the amount of times this CPU has preempted a process and saved its context.
+	 *
+	 * @return The amount of context switches performed by this CPU.
+	 */
+	public synchronized int getContextSwitches() {
+		return this.contextSwitches;
+	}
+
+	/**
+	 * Retrieves the total time this CPU has spent saving and restoring the context of preempted processes.
+	 *
+	 * @return The time in nanoseconds spent on context switches.
+	 */
+	public synchronized long getContextSwitchTime() {
+		return this.contextSwitchTime;
+	}
+
+	/**
+	 * Sets a listener that is called on this CPU's thread whenever a process stops running, because it terminated or
+	 * was preempted. This lets the system react to the CPU instead of polling it. This should only be done before the
+	 * CPU starts running.
+	 *
+	 * @param processListener The listener, which is given the {@link PCB} of the process that stopped, or {@code null}
+	 *                        to not call anything.
+	 */
+	public void setProcessListener( Consumer<PCB> processListener ) {
+		this.processListener = processListener;
+	}
+
+	/**
+	 * Retrieves the interrupt vector of this CPU, which is checked at the end of every batch of instructions and
+	 * before this CPU goes idle.
+	 *
+	 * @return The {@link InterruptController} of this CPU.
+	 */
+	public InterruptController getInterruptController() {
+		return this.interrupts;
+	}
+
+	/**
+	 * Sets the DMA engine that performs this CPU's I/O asynchronously. While a process waits for its transfer, this CPU
+	 * runs other processes. See {@link DMAEngine}.
+	 *
+	 * @param dmaEngine The DMA engine, or {@code null} to perform I/O on this CPU's own thread, which holds the CPU
+	 *                  for the length of the transfer.
+	 */
+	public void setDMAEngine( DMAEngine dmaEngine ) {
+		this.dmaEngine = dmaEngine;
+	}
+
+	/**
+	 * <p>Gives this CPU a ready queue of its own, so that it takes its next process itself instead of waiting for the
+	 * {@link yeezus.driver.Dispatcher}. This should only be done before the CPU starts running.</p><p>When the process
+	 * on this CPU is preempted, it goes to the back of this CPU's queue, and the CPU takes the process at the front.
+	 * When this CPU's queue is empty, it steals the process at the back of another CPU's queue, so an owner and a thief
+	 * only compete for the same process when a queue is nearly empty. Processes are added to the queues with {@link
+	 * CPU#enqueue(PCB)}.</p>
+	 *
+	 * @param peers Every CPU that this CPU may steal processes from. This CPU may be included.
+	 */
+	public void enableWorkStealing( @NotNull CPU[] peers ) {
+		this.runQueue = new ConcurrentLinkedDeque<>();
+		this.peers = peers;
+	}
+
+	/**
+	 * Checks if this CPU has a ready queue of its own. See {@link CPU#enableWorkStealing(CPU[])}.
+	 *
+	 * @return {@code true} if this CPU takes its next process itself.
+	 */
+	public boolean isWorkStealing() {
+		return this.runQueue != null;
+	}
+
+	/**
+	 * Adds a process to the back of this CPU's ready queue, and wakes the CPU up if it is idle.
+	 *
+	 * @param pcb The {@link PCB} of the ready process.
+	 * @throws IllegalStateException Thrown if work stealing hasn't been enabled on this CPU.
+	 */
+	public void enqueue( @NotNull PCB pcb ) {
+		if ( this.runQueue == null ) {
+			throw new IllegalStateException( "CPU " + this.cpuid + " doesn't have a ready queue of its own." );
+		}
+		this.runQueue.addLast( pcb );
+		wake();
+	}
+
+	/**
+	 * Removes the process at the back of this CPU's ready queue, so that it can be moved to another CPU's queue. See
+	 * {@link yeezus.driver.LoadBalancer}.
+	 *
+	 * @return The {@link PCB} of the process that would have run last, or {@code null} if the queue is empty or work
+	 * stealing isn't enabled.
+	 */
+	public PCB dequeueLast() {
+		return this.runQueue == null ? null : this.runQueue.pollLast();
+	}
+
+	/**
+	 * Retrieves the amount of processes waiting in this CPU's ready queue.
+	 *
+	 * @return The length of this CPU's ready queue, or {@code 0} if work stealing isn't enabled.
+	 */
+	public int getQueueLength() {
+		return this.runQueue == null ? 0 : this.runQueue.size();
+	}
 
+	/**
+	 * Retrieves the amount of processes this CPU has taken from the ready queues of other CPUs.
+	 *
+	 * @return The amount of processes stolen by this CPU.
+	 */
+	public synchronized int getSteals() {
+		return this.steals;
+	}
+
+	/**
+	 * Retrieves the total time that the ready processes run by this CPU waited to be dispatched, from the moment they
+	 * became ready until this CPU started running them.
+	 *
+	 * @return The total dispatch latency in nanoseconds.
+	 */
+	public synchronized long getDispatchLatency() {
+		return this.dispatchLatency;
+	}
+
+	/**
+	 * Retrieves the total time between a process being handed to this CPU with {@link CPU#setProcess(PCB)} and this
+	 * CPU executing its first instruction. This is how long it takes to wake the CPU up.
+	 *
+	 * @return The total handoff latency in nanoseconds.
+	 */
+	public synchronized long getHandoffLatency() {
+		return this.handoffLatency;
 	}
 
 	/**
-	 * Retrieves the Program Counter for the Process being executed by this CPU.
+	 * Retrieves the amount of processes handed to this CPU that it has started executing. See {@link
+	 * CPU#getHandoffLatency()}.
+	 *
+	 * @return The amount of processes this CPU has started executing.
+	 */
+	public synchronized int getHandoffs() {
+		return this.handoffs;
+	}
+
+	/**
+	 * Retrieves the amount of preempted processes whose context this CPU has restored.
+	 *
+	 * @return The amount of processes resumed on this CPU.
+	 */
+	public synchronized int getResumes() {
+		return this.resumes;
+	}
+
+	/**
+	 * Retrieves the amount of resumed processes that last ran on this CPU. See {@link CPU#getResumes()}.
+	 *
+	 * @return The amount of processes resumed on the CPU they last ran on.
+	 */
+	public synchronized int getAffinityHits() {
+		return this.affinityHits;
+	}
+
+	/**
+	 * Retrieves the amount of resumed processes whose lines were still in this CPU's cache, because no other process
+	 * ran on this CPU in between, so the cache wasn't restored.
+	 *
+	 * @return The amount of warm starts.
+	 */
+	public synchronized int getWarmStarts() {
+		return this.warmStarts;
+	}
+
+	/**
+	 * Retrieves the amount of cache words that didn't have to be restored, thanks to warm starts. See {@link
+	 * CPU#getWarmStarts()}.
+	 *
+	 * @return The amount of cache words saved.
+	 */
+	public synchronized long getCacheWordsSaved() {
+		return this.cacheWordsSaved;
+	}
+
+	/**
+	 * Retrieves the amount of ready processes dispatched to this CPU. See {@link CPU#getDispatchLatency()}.
+	 *
+	 * @return The amount of ready processes dispatched to this CPU.
+	 */
+	public synchronized int getDispatches() {
+		return this.dispatches;
+	}
+
+	/**
+	 * Retrieves the Program Counter for the Process being executed by this CPU. This is only to be used by the thread
+	 * running this CPU.
 	 *
 	 * @return The Program Counter of the Process in this CPU.
 	 */
-	protected synchronized int getPC() {
+	protected int getPC() {
 		return this.pc;
 	}
 
 	/**
-	 * Sets the new Program Counter for the Process being executed by this CPU.
+	 * Sets the new Program Counter for the Process being executed by this CPU. This is only to be used by the thread
+	 * running this CPU.
 	 *
 	 * @param pc <p>The new Program Counter for the Process in this CPU.</p><p>A negative value, or any value larger
 	 *           than the number of instructions for this process will be ignored.</p>
 	 */
-	protected synchronized void setPC( int pc ) {
-		if ( pc >= 0 && pc < this.pcb.getInstructionsLength() ) {
+	protected void setPC( int pc ) {
+		if ( pc >= 0 && pc < this.instructionsLength ) {
 			this.pc = pc;
 		}
 	}
@@ -139,23 +592,73 @@ public class CPU implements Runnable {
 	}
 
 	/**
-	 * <p>Sets a new process for this CPU.</p><p><b>NOTE:</b> It is imperative that {@link Object#notify()} be called on
-	 * this CPU instance after using this method, or the thread it runs on will continue to sleep.</p>
+	 * <p>Sets a new process for this CPU, using the time quantum of this CPU. If the process was preempted, the
+	 * Program Counter, registers, and cache saved in its {@link PCB} are restored. Otherwise, the process is loaded
+	 * into the cache from the RAM.</p><p>The CPU is woken up to run the process if it is idle. See {@link
+	 * CPU#wake()}.</p>
 	 *
 	 * @param pcb The {@link PCB} of the new process to be run by this CPU.
 	 */
-	public synchronized void setProcess( @NotNull PCB pcb ) {
+	public void setProcess( @NotNull PCB pcb ) {
+		setProcess( pcb, this.quantum );
+	}
+
+	/**
+	 * Sets a new process for this CPU that will be preempted after the given amount of instructions. See {@link
+	 * CPU#setProcess(PCB)}.
+	 *
+	 * @param pcb     The {@link PCB} of the new process to be run by this CPU.
+	 * @param quantum The amount of instructions the process may execute before it is preempted, or {@code 0} to let
+	 *                it run until it terminates.
+	 */
+	public synchronized void setProcess( @NotNull PCB pcb, int quantum ) {
+		if ( pcb.getStatus() == PCB.Status.READY ) {
+			this.dispatchLatency += pcb.getTimeInStatus();
+			this.dispatches++;
+		}
 		this.pcb = pcb;
+		this.executing = false;
+		this.instructionsLength = pcb.getInstructionsLength();
+		this.processQuantum = quantum;
+		this.signals.getAndUpdate( signals -> signals & ~PREEMPT );
+		if ( pcb.getRegisters() != null ) {
+			// Restore the context of a preempted process
+			long start = Clock.INSTANCE.nanoTime();
+			this.resumes++;
+			if ( pcb.getCPUID() == this.cpuid ) {
+				this.affinityHits++;
+			}
+			this.registers.copy( pcb.getRegisters() );
+			if ( this.cacheOwner == pcb && pcb.getCPUID() == this.cpuid ) {
+				// The process last ran here and no other process has run here since, so the cache still holds its
+				// lines
+				this.warmStarts++;
+				this.cacheWordsSaved += this.cache.getCapacity();
+			} else {
+				this.cache.copy( pcb.getCache() );
+			}
+			this.pc = pcb.getPC();
+			this.contextSwitchTime += Clock.INSTANCE.nanoTime() - start;
+		} else {
+			for ( int i = 0; i < pcb.getTotalSize() && i < this.cache.getCapacity(); i++ ) {
+				this.cache.write( i, this.mmu.read( pcb, i ) );
+			}
+			setPC( 0 );
+		}
+		this.cacheOwner = pcb;
 		this.pcb.setCPUID( this.cpuid );
+		this.pcb.startBurst();
 		this.pcb.setStatus( PCB.Status.RUNNING );
-		setPC( 0 );
 		this.numProcesses++;
+		updateActiveTraceLevel();
+		this.handoffStart = Clock.INSTANCE.nanoTime();
+		wake();
 	}
 
 	/**
 	 * Executes any process that is loaded into this CPU. <p><b>NOTE:</b> If there is no currently-set process, this
-	 * method will cause its parent thread to sleep. To wake it up, use {@link CPU#setProcess(PCB)} to set a new
-	 * process, followed by {@link Object#notify()} to begin its execution again.</p>
+	 * method will cause its parent thread to park until it is woken up by {@link CPU#setProcess(PCB)} or {@link
+	 * CPU#wake()}.</p>
 	 *
 	 * @throws InvalidInstructionException Thrown if the fetched Instruction could not be successfully decoded.
 	 * @throws InvalidWordException        Thrown if there was an issue with storing new data in the execution of the
@@ -165,84 +668,375 @@ public class CPU implements Runnable {
 	 * @throws InvalidAddressException     Thrown if an instruction tries to access an invalid address in memory.
 	 */
 	@Override public void run() {
-		long startExecuteTime = System.nanoTime();
+		this.thread = Thread.currentThread();
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		long startHostTime = threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : -1;
+		long startExecuteTime = Clock.INSTANCE.nanoTime();
+		// The idle strategy backs off for as long as this CPU doesn't find a process to run, even though it stops
+		// waiting after every attempt to look for a process to steal
+		int attempts = 0;
 		while ( !isShutdown() ) {
-			while ( getProcess() != null && getProcess().getStatus() != PCB.Status.TERMINATED ) {
-				// Check if this process has had a pc error
-				if ( getPC() >= getProcess().getInstructionsLength() ) {
-					System.err.println( generateSimpleDump() );
-					printDump();
-					getProcess().setStatus( PCB.Status.TERMINATED );
-				} else {
-					// Fetch
-					Word instruction = this.cache.read( getPC() );
-					setPC( getPC() + 1 );
-
-					// Decode
-					ExecutableInstruction executableInstruction = decode( instruction );
-
-					// Execute
-					getProcess().incExecutionCount();
-
-					if ( executableInstruction.type == InstructionSet.HLT ) {
-						getProcess().setStatus(
-								PCB.Status.TERMINATED ); // Make sure this is the last call to getProcess() this loop
-						this.previousInstruction = null;
-						this.log.clear();
-					} else {
-						if ( executableInstruction.getClass() == ExecutableInstruction.IOExecutableInstruction.class ) {
-							this.dmaChannel
-									.handle( (ExecutableInstruction.IOExecutableInstruction) executableInstruction,
-											getProcess() );
-						} else {
-							executableInstruction.run();
-						}
-						this.previousInstruction = executableInstruction;
-						this.log.add( generateSimpleDump() );
-					}
-				}
+			if ( runUntilIdle() ) {
+				attempts = 0;
 			}
-			long startSleepTime = System.nanoTime();
+			long startSleepTime = Clock.INSTANCE.nanoTime();
 			this.executeTime += startSleepTime - startExecuteTime;
-			synchronized ( this ) {
-				try {
-					this.wait();
-				} catch ( InterruptedException e ) {
-					e.printStackTrace();
+			// A wake up between the check and the park leaves a permit, so the park returns at once
+			while ( !isShutdown() && !hasWork() ) {
+				this.idleStrategy.idle( attempts++ );
+				if ( this.runQueue != null ) {
+					// Woken up to look for a process to steal
+					break;
 				}
 			}
-			startExecuteTime = System.nanoTime();
+			startExecuteTime = Clock.INSTANCE.nanoTime();
 			this.idleTime += startExecuteTime - startSleepTime;
 		}
+		if ( startHostTime >= 0 ) {
+			this.hostTime += threadBean.getCurrentThreadCpuTime() - startHostTime;
+		}
+		this.stopped.countDown();
+	}
+
+	// Runs this CPU on a carrier thread until it has no work left. Only one slice of a CPU runs at a time, since a new
+	// slice is only scheduled by the wake up that sets the scheduled flag.
+	private void runSlice() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		while ( true ) {
+			long startHostTime =
+					threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : -1;
+			long start = Clock.INSTANCE.nanoTime();
+			this.idleTime += start - this.idleSince;
+			runUntilIdle();
+			this.idleSince = Clock.INSTANCE.nanoTime();
+			this.executeTime += this.idleSince - start;
+			if ( startHostTime >= 0 ) {
+				this.hostTime += threadBean.getCurrentThreadCpuTime() - startHostTime;
+			}
+			if ( isShutdown() ) {
+				// The CPU stays scheduled, so no more slices are started
+				this.stopped.countDown();
+				return;
+			}
+			this.scheduled.set( false );
+			// A wake up just before the flag was cleared found the CPU still scheduled, so check for work again
+			if ( !( hasWork() || isShutdown() ) || !this.scheduled.compareAndSet( false, true ) ) {
+				return;
+			}
+		}
+	}
+
+	// Runs processes until this CPU has nothing left to run
+	private boolean runUntilIdle() {
+		boolean ran = false;
+		while ( !isShutdown() ) {
+			this.interrupts.handle();
+			PCB process = getProcess();
+			if ( process != null && process.getStatus() == PCB.Status.RUNNING ) {
+				ran = true;
+				execute( process );
+				if ( this.processListener != null && process.getStatus() != PCB.Status.RUNNING ) {
+					this.processListener.accept( process );
+				}
+			}
+			if ( this.runQueue == null || isShutdown() ) {
+				return ran;
+			}
+			PCB next = takeNext( process );
+			if ( next == null ) {
+				return ran;
+			}
+			setProcess( next );
+		}
+		return ran;
+	}
+
+	private boolean hasWork() {
+		PCB process = getProcess();
+		return process != null && process.getStatus() == PCB.Status.RUNNING || this.runQueue != null
+				&& !this.runQueue.isEmpty() || this.interrupts.isPending();
+	}
+
+	// Puts the process that just stopped running back in this CPU's queue if it was preempted, then takes the next
+	// process from the front of this CPU's queue, or steals one from the back of another CPU's queue
+	private PCB takeNext( PCB previous ) {
+		synchronized ( this ) {
+			if ( previous != null && this.pcb == previous ) {
+				// Once the process is in the queue another CPU can steal it, so it can't stay on this CPU
+				this.pcb = null;
+				if ( previous.getStatus() == PCB.Status.READY ) {
+					this.runQueue.addLast( previous );
+				}
+			}
+		}
+		PCB next = this.runQueue.pollFirst();
+		if ( next != null ) {
+			return next;
+		}
+		int self = 0;
+		while ( self < this.peers.length && this.peers[self] != this ) {
+			self++;
+		}
+		for ( int i = 1; i <= this.peers.length; i++ ) {
+			CPU victim = this.peers[( self + i ) % this.peers.length];
+			if ( victim != this && victim.runQueue != null && ( next = victim.runQueue.pollLast() ) != null ) {
+				synchronized ( this ) {
+					this.steals++;
+				}
+				return next;
+			}
+		}
+		return null;
 	}
 
 	/**
 	 * For testing use only. For regular execution, use {@link CPU#run()}.
 	 */
 	public void debugRun() {
-		if ( getProcess() == null ) {
+		PCB process = getProcess();
+		if ( process == null ) {
 			// Do nothing
 			return;
 		}
+		if ( !step( process, TraceLevel.OFF ) ) {
+			this.dmaChannel.flush( process );
+			process.setStatus( PCB.Status.TERMINATED );
+		}
+	}
+
+	// Runs the process in batches until it terminates or is preempted. The process state is kept in this thread
+	// between batches, and the only synchronization is a single volatile read of the signals at the end of each batch.
+	private void execute( PCB process ) {
+		DMAEngine dmaEngine = this.dmaEngine;
+		if ( dmaEngine != null ) {
+			dmaEngine.computeStarted();
+		}
+		beginExecution();
+		while ( endBatch( process, runBatch( process ) ) ) {
+			// Keep running the process
+		}
+		if ( dmaEngine != null ) {
+			dmaEngine.computeStopped();
+		}
+	}
+
+	// Prepares the state kept between the batches of the current process
+	private void beginExecution() {
+		synchronized ( this ) {
+			if ( this.handoffStart != 0 ) {
+				this.handoffLatency += Clock.INSTANCE.nanoTime() - this.handoffStart;
+				this.handoffs++;
+				this.handoffStart = 0;
+			}
+		}
+		this.executionTraceLevel = this.activeTraceLevel;
+		if ( ( this.signals.get() & SAMPLING_CHANGED ) != 0 ) {
+			restartSampling();
+		}
+		this.quantumEnd = this.quantumNanos > 0 ? Clock.INSTANCE.nanoTime() + this.quantumNanos : 0;
+		this.quantumUsed = 0;
+	}
+
+	// Executes a single batch of instructions. Returns false once the process has halted.
+	private boolean runBatch( PCB process ) {
+		TraceLevel traceLevel = this.executionTraceLevel;
+		int quantum = this.processQuantum;
+		int batchSize = quantum > 0 ? Math.min( this.batchSize, quantum - this.quantumUsed ) : this.batchSize;
+		int executed = 0;
+		boolean running = true;
+		try {
+			while ( running && executed < batchSize && this.ioRequest == null ) {
+				// Check if this process has had a pc error
+				if ( this.pc >= this.instructionsLength ) {
+					if ( traceLevel != TraceLevel.OFF ) {
+						System.err.println( generateSimpleDump() );
+						this.trace.print( System.out );
+					}
+					running = false;
+				} else {
+					running = step( process, traceLevel );
+					executed++;
+				}
+			}
+		} catch ( InvalidAddressException e ) {
+			// The process accessed memory outside of its own, so it is terminated
+			this.interrupts.raise( Interrupt.PAGE_FAULT, process );
+			running = false;
+		}
+		process.addExecutionCount( executed );
+		this.quantumUsed += executed;
+		return running;
+	}
+
+	// The safepoint at the end of a batch. Returns false once the process has stopped running on this CPU, either
+	// because it terminated or was preempted, or because this CPU is shutting down.
+	private boolean endBatch( PCB process, boolean running ) {
+		if ( running && this.quantumEnd != 0 && Clock.INSTANCE.nanoTime() - this.quantumEnd >= 0 ) {
+			// The timer went off when the quantum ended, and its interrupt is handled at this safepoint
+			this.interrupts.raise( Interrupt.TIMER, process, this.quantumEnd );
+			this.quantumEnd = 0;
+		}
+		boolean timer = ( this.interrupts.handle() & Interrupt.TIMER.mask() ) != 0;
+		if ( !running ) {
+			// The combined writes must reach the RAM before the process can be written back to the disk
+			try {
+				this.dmaChannel.flush( process );
+			} catch ( InvalidAddressException e ) {
+				this.interrupts.raise( Interrupt.PAGE_FAULT, process );
+				this.interrupts.handle();
+			}
+			process.setStatus( PCB.Status.TERMINATED );
+			return false;
+		}
+		if ( this.ioRequest != null ) {
+			// The process waits for its transfer, and the DMA engine's interrupt makes it ready again. It leaves this
+			// CPU first, so that the Dispatcher can't mistake it for a preempted process once the transfer completes.
+			saveContext( process );
+			process.setStatus( PCB.Status.WAITING );
+			synchronized ( this ) {
+				if ( this.pcb == process ) {
+					this.pcb = null;
+				}
+			}
+			this.dmaEngine.submit( process, this.ioRequest );
+			this.ioRequest = null;
+			return false;
+		}
+		int signals = this.signals.get();
+		if ( signals != 0 ) {
+			if ( ( signals & SHUTDOWN ) != 0 ) {
+				return false;
+			}
+			if ( ( signals & TRACE_LEVEL_CHANGED ) != 0 ) {
+				this.signals.getAndUpdate( s -> s & ~TRACE_LEVEL_CHANGED );
+				this.executionTraceLevel = this.activeTraceLevel;
+			}
+			if ( ( signals & SAMPLING_CHANGED ) != 0 ) {
+				restartSampling();
+			}
+			if ( ( signals & PREEMPT ) != 0 ) {
+				this.signals.getAndUpdate( s -> s & ~PREEMPT );
+				running = false;
+			}
+		}
+		int quantum = this.processQuantum;
+		if ( timer || quantum > 0 && this.quantumUsed >= quantum ) {
+			running = false;
+		}
+		if ( !running ) {
+			saveContext( process );
+			process.setStatus( PCB.Status.READY );
+		}
+		return running;
+	}
+
+	/**
+	 * <p>Executes the next batch of instructions of this CPU's process on the calling thread, for the discrete-event
+	 * simulation. See {@link yeezus.driver.Driver#simulate()}. The CPU must not also be running on a thread.</p><p>The
+	 * instructions are executed at once, but the batch only ends, and the process only terminates or is preempted, when
+	 * {@link CPU#finishBatch()} is called once the simulation has advanced the {@link Clock} by the cost of the batch.
+	 * </p>
+	 *
+	 * @param costs The cost of each type of instruction.
+	 * @return The cost of the batch in cycles, or {@code -1} if this CPU doesn't have a running process.
+	 */
+	public long startBatch( @NotNull CostTable costs ) {
+		PCB process = getProcess();
+		if ( process == null || process.getStatus() != PCB.Status.RUNNING ) {
+			return -1;
+		}
+		long now = Clock.INSTANCE.nanoTime();
+		this.idleTime += now - this.idleSince;
+		this.costs = costs;
+		this.batchCycles = 0;
+		if ( !this.executing ) {
+			beginExecution();
+			this.executing = true;
+			if ( process.getRegisters() != null ) {
+				// The process was preempted, so its context has to be restored
+				this.batchCycles += costs.getContextSwitchCost();
+				synchronized ( this ) {
+					this.contextSwitchTime += costs.getContextSwitchCost();
+				}
+			}
+		}
+		this.batchRunning = runBatch( process );
+		this.costs = null;
+		this.executeTime += this.batchCycles;
+		this.idleSince = now + this.batchCycles;
+		return this.batchCycles;
+	}
+
+	/**
+	 * Ends the batch started by {@link CPU#startBatch(CostTable)}, at the safepoint where the process terminates or is
+	 * preempted.
+	 */
+	public void finishBatch() {
+		PCB process = getProcess();
+		if ( process == null || !this.executing ) {
+			return;
+		}
+		if ( !endBatch( process, this.batchRunning ) ) {
+			this.executing = false;
+			if ( this.processListener != null && process.getStatus() != PCB.Status.RUNNING ) {
+				this.processListener.accept( process );
+			}
+		}
+	}
+
+	// Saves the state of the process so that it can be restored by setProcess() when the process is dispatched again
+	private void saveContext( PCB process ) {
+		long start = Clock.INSTANCE.nanoTime();
+		process.setPC( this.pc );
+		if ( process.getRegisters() == null ) {
+			process.setRegisters( new Memory( this.registers.getCapacity() ) );
+		}
+		process.getRegisters().copy( this.registers );
+		if ( process.getCache() == null ) {
+			process.setCache( new Memory( this.cache.getCapacity() ) );
+		}
+		process.getCache().copy( this.cache );
+		synchronized ( this ) {
+			this.contextSwitches++;
+			this.contextSwitchTime += Clock.INSTANCE.nanoTime() - start;
+		}
+	}
+
+	// Fetches, decodes, and executes a single instruction. Returns false once the process has halted.
+	private boolean step( PCB process, TraceLevel traceLevel ) {
 		// Fetch
-		Word instruction = this.cache.read( getPC() );
-		setPC( getPC() + 1 );
+		int pc = this.pc;
+		Word instruction = this.cache.read( pc );
+		this.pc = pc + 1;
 
 		// Decode
 		ExecutableInstruction executableInstruction = decode( instruction );
+		if ( this.costs != null ) {
+			this.batchCycles += this.costs.getCost( executableInstruction.type );
+		}
 
 		// Execute
 		if ( executableInstruction.type == InstructionSet.HLT ) {
-			getProcess().setStatus( PCB.Status.TERMINATED );
-			return;
+			this.previousInstruction = null;
+			this.trace.clear();
+			return false;
 		}
-
 		if ( executableInstruction.getClass() == ExecutableInstruction.IOExecutableInstruction.class ) {
-			this.dmaChannel
-					.handle( (ExecutableInstruction.IOExecutableInstruction) executableInstruction, getProcess() );
+			if ( this.dmaEngine != null ) {
+				// The batch ends here, and the transfer is queued once the process has been switched out
+				this.ioRequest = (ExecutableInstruction.IOExecutableInstruction) executableInstruction;
+			} else {
+				this.dmaChannel.handle( (ExecutableInstruction.IOExecutableInstruction) executableInstruction,
+						process );
+			}
 		} else {
 			executableInstruction.run();
 		}
+		this.previousInstruction = executableInstruction;
+		if ( TRACE_ENABLED && sample( traceLevel ) ) {
+			record( process, pc, executableInstruction );
+		}
+		return true;
 	}
 
 	/**
@@ -301,13 +1095,52 @@ public class CPU implements Runnable {
 		return dumpReport.toString();
 	}
 
+	// Takes over the sampling settings last set by setSampling
+	private void restartSampling() {
+		this.signals.getAndUpdate( s -> s & ~SAMPLING_CHANGED );
+		this.sampleCountdown = this.samplingInterval;
+	}
+
+	// Checks if the next executed instruction should be recorded under the given trace level
+	private boolean sample( TraceLevel level ) {
+		if ( level == TraceLevel.FULL ) {
+			return true;
+		} else if ( level != TraceLevel.SAMPLED || --this.sampleCountdown > 0 ) {
+			return false;
+		}
+		this.sampleCountdown = this.randomSampling ?
+				ThreadLocalRandom.current().nextInt( 2 * this.samplingInterval - 1 ) + 1 :
+				this.samplingInterval;
+		return true;
+	}
+
+	// Records the executed instruction in the trace
+	private void record( PCB process, int pc, ExecutableInstruction instruction ) {
+		int register = instruction.getDestinationRegister();
+		this.trace.record( process.getPID(), pc, instruction.type.getCode(), register,
+				register == TraceBuffer.NO_REGISTER ? 0 : this.registers.read( register ).getData() );
+	}
+
 	/**
-	 * Prints the dump log generated by this CPU for this process. This will print to the {@link System#out} {@link
-	 * java.io.PrintStream}.
+	 * Retrieves the trace of the instructions this CPU most recently executed. This is only to be used in testing.
+	 *
+	 * @return The {@link TraceBuffer} of this CPU.
+	 */
+	TraceBuffer getTrace() {
+		return this.trace;
+	}
+
+	/**
+	 * Prints the current state of this CPU, followed by the trace of the instructions it most recently executed for
+	 * this process, most recent first. This will print to the {@link System#out} {@link java.io.PrintStream}.
 	 */
 	public void printDump() {
-		while ( !this.log.isEmpty() ) {
-			System.out.println( this.log.remove( this.log.size() - 1 ) );
+		if ( this.activeTraceLevel == TraceLevel.OFF ) {
+			return;
+		}
+		if ( getProcess() != null ) {
+			System.out.println( generateSimpleDump() );
 		}
+		this.trace.print( System.out );
 	}
 }
@@ -0,0 +1,130 @@
+package yeezus.cpu;
+
+import com.sun.istack.internal.NotNull;
+
+/**
+ * <p>The amount of cycles each type of instruction takes under the discrete-event simulation. See {@link
+ * yeezus.driver.Driver#simulate()}.</p><p>By default, arithmetic and logical instructions take a single cycle,
+ * multiplications take {@value #MULTIPLY}, divisions take {@value #DIVIDE}, branches and jumps take {@value #BRANCH},
+ * memory accesses take {@value #MEMORY}, and I/O through the DMA channel takes {@value #IO}. Restoring the context
+ * of a preempted process takes {@value #CONTEXT_SWITCH} cycles.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class CostTable {
+
+	/**
+	 * The default cost in cycles of a multiplication.
+	 */
+	public static final long MULTIPLY = 3;
+
+	/**
+	 * The default cost in cycles of a division.
+	 */
+	public static final long DIVIDE = 10;
+
+	/**
+	 * The default cost in cycles of a branch or jump.
+	 */
+	public static final long BRANCH = 2;
+
+	/**
+	 * The default cost in cycles of a load or store.
+	 */
+	public static final long MEMORY = 4;
+
+	/**
+	 * The default cost in cycles of an I/O instruction.
+	 */
+	public static final long IO = 20;
+
+	/**
+	 * The default cost in cycles of a context switch.
+	 */
+	public static final long CONTEXT_SWITCH = 50;
+
+	private final long[] costs = new long[InstructionSet.values().length];
+	private long contextSwitchCost = CONTEXT_SWITCH;
+
+	/**
+	 * Constructs a new cost table with the default costs.
+	 */
+	public CostTable() {
+		for ( InstructionSet type : InstructionSet.values() ) {
+			switch ( type ) {
+				case MUL:
+				case MULI:
+					this.costs[type.ordinal()] = MULTIPLY;
+					break;
+				case DIV:
+				case DIVI:
+					this.costs[type.ordinal()] = DIVIDE;
+					break;
+				case JMP:
+				case BEQ:
+				case BNE:
+				case BEZ:
+				case BNZ:
+				case BGZ:
+				case BLZ:
+					this.costs[type.ordinal()] = BRANCH;
+					break;
+				case LW:
+				case ST:
+					this.costs[type.ordinal()] = MEMORY;
+					break;
+				case RD:
+				case WR:
+					this.costs[type.ordinal()] = IO;
+					break;
+				default:
+					this.costs[type.ordinal()] = 1;
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the cost of a type of instruction.
+	 *
+	 * @param type The type of instruction.
+	 * @return The amount of cycles the instruction takes.
+	 */
+	public long getCost( @NotNull InstructionSet type ) {
+		return this.costs[type.ordinal()];
+	}
+
+	/**
+	 * Sets the cost of a type of instruction.
+	 *
+	 * @param type   The type of instruction.
+	 * @param cycles The amount of cycles the instruction takes.
+	 */
+	public void setCost( @NotNull InstructionSet type, long cycles ) {
+		if ( cycles < 0 ) {
+			throw new IllegalArgumentException( "An instruction can't take a negative amount of cycles." );
+		}
+		this.costs[type.ordinal()] = cycles;
+	}
+
+	/**
+	 * Retrieves the cost of restoring the context of a preempted process.
+	 *
+	 * @return The amount of cycles a context switch takes.
+	 */
+	public long getContextSwitchCost() {
+		return this.contextSwitchCost;
+	}
+
+	/**
+	 * Sets the cost of restoring the context of a preempted process.
+	 *
+	 * @param cycles The amount of cycles a context switch takes.
+	 */
+	public void setContextSwitchCost( long cycles ) {
+		if ( cycles < 0 ) {
+			throw new IllegalArgumentException( "A context switch can't take a negative amount of cycles." );
+		}
+		this.contextSwitchCost = cycles;
+	}
+}
@@ -3,6 +3,7 @@ package yeezus.cpu;
 
 import yeezus.memory.MMU;
 import yeezus.memory.Memory;
+import yeezus.memory.TransferBuffer;
 import yeezus.pcb.PCB;
 
 public class DMAChannel {
@@ -22,6 +23,7 @@ public class DMAChannel {
 		pcb.incNumIO();
 		int reg1 = instruction.reg1;
 		int reg2 = instruction.reg2;
+		TransferBuffer buffer = pcb.getTransferBuffer();
 
 		//	System.out.println( "Executing: " + instruction.type + ", " + reg1 + ", " + reg2 + "(" + (int) registers.read( reg2 ).getData() / 4 )+"), " + instruction.address );
 
@@ -29,12 +31,12 @@ public class DMAChannel {
 		if ( instruction.type == InstructionSet.RD ) {
 			//reading address into reg1
 			if ( instruction.reg2 == 0 && instruction.address != 0 ) {
-				registers.write( instruction.reg1, mmu.read( pcb, instruction.address / 4 ) );
+				registers.write( instruction.reg1, buffer.read( mmu, pcb, instruction.address / 4 ) );
 				// System.out.println( "Reading address: " + instruction.address / 4 + " into reg1: " + instruction.reg1 );
 			}
 			//reading reg2 into reg1
 			else {
-				registers.write( instruction.reg1, mmu.read( pcb, (int) ( registers.read( reg2 ).getData() / 4 ) ) );
+				registers.write( instruction.reg1, buffer.read( mmu, pcb, (int) ( registers.read( reg2 ).getData() / 4 ) ) );
 				// System.out.println("Reading address: " + registers.read( instruction.reg2 ).getData() / 4 + " into reg1: "+ instruction.reg1 );
 			}
 		}
@@ -43,16 +45,26 @@ public class DMAChannel {
 		else if ( instruction.type == InstructionSet.WR ) {
 			//writing register 1 to address
 			if ( instruction.reg2 == 0 && instruction.address != 0 ) {
-				mmu.write( pcb, instruction.address / 4, registers.read( instruction.reg1 ) );
+				buffer.write( mmu, pcb, instruction.address / 4, registers.read( instruction.reg1 ) );
 				// System.out.println( "Writing " + registers.read( instruction.reg1 ).getData() + " into address: "+ instruction.address / 4 );
 			}
 			//writing register 1 to register 2
 			else {
-				mmu.write( pcb, (int) registers.read( instruction.reg2 ).getData() / 4,
+				buffer.write( mmu, pcb, (int) registers.read( instruction.reg2 ).getData() / 4,
 						registers.read( instruction.reg1 ) );
 				// System.out.println( "Writing " + registers.read( instruction.reg1 ).getData() + " into address: "+ registers.read( instruction.reg2 ).getData() / 4 );
 			}
 		}
 
 	}
+
+	/**
+	 * Writes the process's combined writes back to its memory. This must be done before the process terminates, so
+	 * that its memory is complete when it is written back to the disk.
+	 *
+	 * @param pcb The {@link PCB} of the process.
+	 */
+	public void flush( PCB pcb ) {
+		pcb.getTransferBuffer().flush( mmu, pcb );
+	}
 }
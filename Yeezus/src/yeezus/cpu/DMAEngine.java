@@ -0,0 +1,285 @@
+package yeezus.cpu;
+
+import com.sun.istack.internal.NotNull;
+import yeezus.Clock;
+import yeezus.Histogram;
+import yeezus.memory.InvalidAddressException;
+import yeezus.memory.MMU;
+import yeezus.pcb.PCB;
+
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <p>A DMA engine that performs the I/O of every CPU asynchronously, on channels with threads of their own. When a
+ * process executes an I/O instruction, its CPU saves its context, sets it to {@link PCB.Status#WAITING}, and queues the
+ * transfer here, so that the CPU can run another process in the meantime. Once the transfer is done, the engine sets
+ * the process back to {@link PCB.Status#READY} and calls its completion handler, which raises an {@link
+ * Interrupt#IO_COMPLETION} on the process's CPU, whose handler puts the process back in the Ready Queue. See {@link
+ * CPU#setDMAEngine(DMAEngine)}.</p><p>Every CPU shares the engine's
+ * channels, each of which performs one transfer at a time on a thread of its own, so the CPUs contend for I/O just as
+ * they contend for RAM. Transfers wait in a single queue, which is ordered by a {@link DMAQueuePolicy}. Each transfer
+ * holds its channel for at least the modelled service time: a fixed latency, plus the time the word it asks to move
+ * takes at the modelled bandwidth. See {@link DMAEngine#setLatency(long)} and {@link DMAEngine#setBandwidth(long)}.</p><p>The
+ * engine measures how much of the time spent on I/O overlapped with CPUs executing processes, and keeps histograms of
+ * the depth of the queue and of the service time of the transfers.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class DMAEngine {
+
+	// Tells a channel to stop
+	private static final Request SHUTDOWN = new Request( null, null, Long.MAX_VALUE );
+
+	private final MMU mmu;
+	private final BlockingQueue<Request> requests;
+	private final Thread[] workers;
+	private final Consumer<PCB> completionHandler;
+	private final Histogram queueDepths = new Histogram(), serviceTimes = new Histogram();
+	private long latency = 0, bandwidth = 0;
+	private int busyCPUs = 0, inFlight = 0, transfers = 0;
+	private long lastChange, ioTime = 0, overlapTime = 0, sequence = 0;
+
+	/**
+	 * Constructs a new DMA engine whose channels perform transfers in the order they were queued. See {@link
+	 * DMAEngine#DMAEngine(MMU, int, DMAQueuePolicy, Consumer)}.
+	 *
+	 * @param mmu               The MMU that manages this system's RAM.
+	 * @param channels          The amount of channels that perform transfers.
+	 * @param completionHandler The interrupt handler.
+	 */
+	public DMAEngine( @NotNull MMU mmu, int channels, @NotNull Consumer<PCB> completionHandler ) {
+		this( mmu, channels, DMAQueuePolicy.FIFO, completionHandler );
+	}
+
+	/**
+	 * Constructs a new DMA engine. The channels are started with {@link DMAEngine#start()}.
+	 *
+	 * @param mmu               The MMU that manages this system's RAM.
+	 * @param channels          The amount of channels that perform transfers.
+	 * @param policy            The order in which the channels take the queued transfers.
+	 * @param completionHandler The interrupt handler, which is called on a channel's thread with the {@link PCB} of
+	 *                          the process whose transfer completed, after it has been set to {@link
+	 *                          PCB.Status#READY}, or to {@link PCB.Status#TERMINATED} if the transfer accessed an
+	 *                          address outside of the process's memory.
+	 */
+	public DMAEngine( @NotNull MMU mmu, int channels, @NotNull DMAQueuePolicy policy,
+			@NotNull Consumer<PCB> completionHandler ) {
+		if ( channels <= 0 ) {
+			throw new IllegalArgumentException( "The DMA engine needs at least one channel." );
+		}
+		this.mmu = mmu;
+		this.completionHandler = completionHandler;
+		Comparator<PCB> comparator = policy.getComparator();
+		// The shutdown signals have the last sequence numbers, so they are always taken after every transfer
+		Comparator<Request> order = Comparator.comparingLong( request -> request.sequence );
+		if ( comparator != null ) {
+			order = Comparator.<Request, Boolean>comparing( request -> request == SHUTDOWN ).thenComparing(
+					( a, b ) -> a == b ? 0 : comparator.compare( a.pcb, b.pcb ) ).thenComparing( order );
+		}
+		this.requests = new PriorityBlockingQueue<>( 16, order );
+		this.workers = new Thread[channels];
+		for ( int i = 0; i < channels; i++ ) {
+			this.workers[i] = new Thread( this::work, "DMA-" + i );
+			this.workers[i].setDaemon( true );
+		}
+	}
+
+	/**
+	 * Sets the fixed part of the modelled service time of a transfer. This should only be done before the engine is
+	 * started.
+	 *
+	 * @param latency The time in nanoseconds that every transfer holds its channel for, on top of the time its word
+	 *                takes.
+	 */
+	public void setLatency( long latency ) {
+		if ( latency < 0 ) {
+			throw new IllegalArgumentException( "The DMA latency cannot be negative." );
+		}
+		this.latency = latency;
+	}
+
+	/**
+	 * Sets the modelled bandwidth of each channel. This should only be done before the engine is started.
+	 *
+	 * @param bandwidth The amount of words a channel can move per second, or {@code 0} for the words to take no time.
+	 */
+	public void setBandwidth( long bandwidth ) {
+		if ( bandwidth < 0 ) {
+			throw new IllegalArgumentException( "The DMA bandwidth cannot be negative." );
+		}
+		this.bandwidth = bandwidth;
+	}
+
+	/**
+	 * Starts the channels.
+	 */
+	public void start() {
+		this.lastChange = Clock.INSTANCE.nanoTime();
+		for ( Thread worker : this.workers ) {
+			worker.start();
+		}
+	}
+
+	/**
+	 * Stops the channels once every queued transfer has been performed, and waits for their threads to exit.
+	 *
+	 * @throws InterruptedException Thrown if the waiting thread is interrupted.
+	 */
+	public void shutdown() throws InterruptedException {
+		for ( int i = 0; i < this.workers.length; i++ ) {
+			this.requests.add( SHUTDOWN );
+		}
+		for ( Thread worker : this.workers ) {
+			worker.join();
+		}
+	}
+
+	/**
+	 * Queues the transfer of an I/O instruction. The process must already be {@link PCB.Status#WAITING}, and its
+	 * registers must be saved in its {@link PCB}, since that is where the transfer reads and writes them.
+	 *
+	 * @param pcb         The {@link PCB} of the process that executed the instruction.
+	 * @param instruction The I/O instruction.
+	 */
+	void submit( @NotNull PCB pcb, @NotNull ExecutableInstruction.IOExecutableInstruction instruction ) {
+		synchronized ( this ) {
+			account();
+			this.inFlight++;
+			this.queueDepths.record( this.requests.size() );
+			this.requests.add( new Request( pcb, instruction, this.sequence++ ) );
+		}
+	}
+
+	/**
+	 * Records that a CPU started executing a process.
+	 */
+	synchronized void computeStarted() {
+		account();
+		this.busyCPUs++;
+	}
+
+	/**
+	 * Records that a CPU stopped executing a process.
+	 */
+	synchronized void computeStopped() {
+		account();
+		this.busyCPUs--;
+	}
+
+	/**
+	 * Retrieves the amount of transfers that have been performed.
+	 *
+	 * @return The amount of completed transfers.
+	 */
+	public synchronized int getTransfers() {
+		return this.transfers;
+	}
+
+	/**
+	 * Retrieves the histogram of the amount of transfers that were already waiting in the queue each time a transfer
+	 * was queued.
+	 *
+	 * @return The {@link Histogram} of queue depths.
+	 */
+	public Histogram getQueueDepths() {
+		return this.queueDepths;
+	}
+
+	/**
+	 * Retrieves the histogram of the time each transfer held its channel, from the moment it was taken from the queue
+	 * until its interrupt was raised.
+	 *
+	 * @return The {@link Histogram} of service times in nanoseconds.
+	 */
+	public Histogram getServiceTimes() {
+		return this.serviceTimes;
+	}
+
+	/**
+	 * Retrieves the time during which at least one transfer was queued or in progress.
+	 *
+	 * @return The time in nanoseconds spent on I/O.
+	 */
+	public synchronized long getIOTime() {
+		account();
+		return this.ioTime;
+	}
+
+	/**
+	 * Retrieves the fraction of the time spent on I/O during which at least one CPU was executing a process.
+	 *
+	 * @return The I/O overlap, between {@code 0} and {@code 1}, or {@code 0} if there was no I/O.
+	 */
+	public synchronized double getOverlap() {
+		account();
+		return this.ioTime == 0 ? 0 : (double) this.overlapTime / this.ioTime;
+	}
+
+	// Adds the time since the last change to the totals of the state the system was in
+	private void account() {
+		long now = Clock.INSTANCE.nanoTime();
+		long elapsed = now - this.lastChange;
+		this.lastChange = now;
+		if ( this.inFlight > 0 ) {
+			this.ioTime += elapsed;
+			if ( this.busyCPUs > 0 ) {
+				this.overlapTime += elapsed;
+			}
+		}
+	}
+
+	private void work() {
+		while ( true ) {
+			Request request;
+			try {
+				request = this.requests.take();
+			} catch ( InterruptedException e ) {
+				return;
+			}
+			if ( request == SHUTDOWN ) {
+				return;
+			}
+			long start = Clock.INSTANCE.nanoTime();
+			boolean faulted = false;
+			try {
+				new DMAChannel( this.mmu, request.pcb.getRegisters() ).handle( request.instruction, request.pcb );
+			} catch ( InvalidAddressException e ) {
+				faulted = true;
+			}
+			// Hold the channel for the rest of the modelled service time. Every transfer is charged for the single
+			// word it asks to move, rather than for the words its buffer happened to move, since a write may only be
+			// staged, and its word then moved by a later transfer or by the CPU when the process terminates.
+			long end = start + this.latency + ( this.bandwidth == 0 ? 0 : 1000000000L / this.bandwidth );
+			for ( long left = end - Clock.INSTANCE.nanoTime(); left > 0; left = end - Clock.INSTANCE.nanoTime() ) {
+				LockSupport.parkNanos( left );
+			}
+			this.serviceTimes.record( Clock.INSTANCE.nanoTime() - start );
+			synchronized ( this ) {
+				account();
+				this.inFlight--;
+				this.transfers++;
+			}
+			// Interrupt
+			request.pcb.setStatus( faulted ? PCB.Status.TERMINATED : PCB.Status.READY );
+			this.completionHandler.accept( request.pcb );
+		}
+	}
+
+	private static class Request {
+
+		private final PCB pcb;
+		private final ExecutableInstruction.IOExecutableInstruction instruction;
+		private final long sequence;
+
+		private Request( PCB pcb, ExecutableInstruction.IOExecutableInstruction instruction, long sequence ) {
+			this.pcb = pcb;
+			this.instruction = instruction;
+			this.sequence = sequence;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package yeezus.cpu;
+
+import yeezus.pcb.PCB;
+
+import java.util.Comparator;
+
+/**
+ * An enumeration of the orders in which the channels of a {@link DMAEngine} take the queued transfers.
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public enum DMAQueuePolicy {
+	/**
+	 * Transfers are performed in the order they were queued.
+	 */
+	FIFO, /**
+	 * The transfers of the processes with the highest priority are performed first, and transfers of equal priority
+	 * are performed in the order they were queued.
+	 */
+	Priority;
+
+	/**
+	 * Retrieves the order of the processes whose transfers are queued.
+	 *
+	 * @return A {@link Comparator} that sorts the process whose transfer should be performed first to the front, or
+	 * {@code null} if transfers are performed in the order they were queued.
+	 */
+	Comparator<PCB> getComparator() {
+		return this == Priority ? Comparator.comparingInt( PCB::getPriority ).reversed() : null;
+	}
+}
@@ -6,8 +6,6 @@ import yeezus.memory.InvalidWordException;
 import yeezus.memory.Memory;
 import yeezus.memory.Word;
 
-import static yeezus.cpu.InstructionSet.values;
-
 /**
  * A class that represents a single CPU Instruction in the OS. This takes in the data from a stored instruction and
  * translates it into something that can be executed by the CPU via the {@link Runnable#run()} method.
@@ -32,14 +30,22 @@ abstract class ExecutableInstruction implements Runnable {
 	private InstructionSet getInstructionSet( @NotNull Word instruction ) throws InvalidInstructionException {
 		long mask = 0x3F000000;
 		long opcode = ( mask & instruction.getData() ) >> 24;
-		for ( InstructionSet instructionSet : values() ) {
-			if ( instructionSet.getCode() == opcode ) {
-				return instructionSet;
-			}
+		InstructionSet instructionSet = InstructionSet.fromCode( (int) opcode );
+		if ( instructionSet != null ) {
+			return instructionSet;
 		}
 		throw new InvalidInstructionException( "The Opcode " + opcode + " is invalid." );
 	}
 
+	/**
+	 * Retrieves the register whose contents are changed by this instruction.
+	 *
+	 * @return The register changed by this instruction, or {@link TraceBuffer#NO_REGISTER} if it doesn't change one.
+	 */
+	int getDestinationRegister() {
+		return TraceBuffer.NO_REGISTER;
+	}
+
 	/**
 	 * A class used for the interpretation and execution of Arithmetic instructions.
 	 */
@@ -110,6 +116,10 @@ abstract class ExecutableInstruction implements Runnable {
 			}
 		}
 
+		@Override int getDestinationRegister() {
+			return this.type == InstructionSet.NOP ? TraceBuffer.NO_REGISTER : this.d;
+		}
+
 		@Override public String toString() {
 			return this.type + ", " + this.s1 + "(" + this.registers.read( this.s1 ).getData() + "), " + this.s2 + "("
 					+ this.registers.read( this.s2 ).getData() + "), " + this.d + "(" + this.registers.read( this.s1 )
@@ -215,6 +225,21 @@ abstract class ExecutableInstruction implements Runnable {
 			}
 		}
 
+		@Override int getDestinationRegister() {
+			switch ( this.type ) {
+				case LW:
+				case MOVI:
+				case ADDI:
+				case MULI:
+				case DIVI:
+				case LDI:
+				case SLTI:
+					return this.dReg;
+				default: // Stores, branches, and NOPs don't change the registers
+					return TraceBuffer.NO_REGISTER;
+			}
+		}
+
 		@Override public String toString() {
 			return this.type + ", " + this.bReg + "(" + this.registers.read( this.bReg ).getData() + "), " + this.dReg
 					+ "(" + this.registers.read( this.dReg ).getData() + "), " + this.data;
@@ -303,6 +328,10 @@ abstract class ExecutableInstruction implements Runnable {
 			//			}
 		}
 
+		@Override int getDestinationRegister() {
+			return this.type == InstructionSet.RD ? this.reg1 : TraceBuffer.NO_REGISTER;
+		}
+
 		@Override public String toString() {
 			return this.type + ", " + this.reg1 + "(" + this.registers.read( this.reg1 ).getData() + "), " + this.reg2
 					+ "(" + this.registers.read( this.reg2 ).getData() + "), " + this.address;
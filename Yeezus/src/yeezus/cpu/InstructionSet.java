@@ -92,12 +92,30 @@ public enum InstructionSet {
 	 */
 	BLZ( 0x1A );
 
+	private static final InstructionSet[] codes = new InstructionSet[0x40];
+
+	static {
+		for ( InstructionSet instructionSet : values() ) {
+			codes[instructionSet.code] = instructionSet;
+		}
+	}
+
 	private int code;
 
 	InstructionSet( int code ) {
 		this.code = code;
 	}
 
+	/**
+	 * Retrieves the instruction type associated with the given opcode.
+	 *
+	 * @param code The opcode of the instruction type.
+	 * @return The instruction type with the given opcode, or {@code null} if no instruction type has that opcode.
+	 */
+	public static InstructionSet fromCode( int code ) {
+		return code >= 0 && code < codes.length ? codes[code] : null;
+	}
+
 	/**
 	 * Retrieves the opcode associated with this instruction type.
 	 *
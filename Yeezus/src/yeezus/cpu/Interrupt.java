@@ -0,0 +1,26 @@
+package yeezus.cpu;
+
+/**
+ * An enumeration of the interrupts that can be raised on a CPU. See {@link InterruptController}.
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public enum Interrupt {
+	/**
+	 * Raised when the process running on the CPU has used up its time quantum. The CPU handles it itself, by preempting
+	 * the process. See {@link CPU#setQuantumNanos(long)}.
+	 */
+	TIMER, /**
+	 * Raised by a {@link DMAEngine} when a process's transfer has completed and the process is ready to run again.
+	 */
+	IO_COMPLETION, /**
+	 * Raised when a process accesses an address outside of its memory. The process is terminated.
+	 */
+	PAGE_FAULT;
+
+	// The bit of this interrupt in an interrupt vector
+	int mask() {
+		return 1 << ordinal();
+	}
+}
@@ -0,0 +1,133 @@
+package yeezus.cpu;
+
+import com.sun.istack.internal.NotNull;
+import com.sun.istack.internal.Nullable;
+import yeezus.Clock;
+import yeezus.Histogram;
+import yeezus.pcb.PCB;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * <p>The interrupt vector of a single CPU. Any thread can raise an {@link Interrupt} on the CPU without blocking: the
+ * interrupt's bit is set in the vector, and the CPU is woken up if it is idle. The CPU checks the vector at the end of
+ * every batch of instructions, and before it goes idle, and handles every pending interrupt on its own thread by
+ * calling the interrupt's handler once for each process the interrupt was raised for.</p><p>Several raises of the same
+ * interrupt before it is handled share one bit, and the latency of the interrupt, from the first of those raises until
+ * it is handled, is recorded in a {@link Histogram} for each type of interrupt.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class InterruptController {
+
+	// Marks an interrupt that hasn't been raised since it was last handled
+	private static final long NOT_RAISED = Long.MIN_VALUE;
+
+	private final CPU cpu;
+	private final AtomicInteger vector = new AtomicInteger( 0 );
+	private final AtomicLongArray raisedAt = new AtomicLongArray( Interrupt.values().length );
+	private final Map<Interrupt, Queue<PCB>> processes = new EnumMap<>( Interrupt.class );
+	private final Map<Interrupt, Consumer<PCB>> handlers = new EnumMap<>( Interrupt.class );
+	private final Map<Interrupt, Histogram> latencies = new EnumMap<>( Interrupt.class );
+
+	InterruptController( @NotNull CPU cpu ) {
+		this.cpu = cpu;
+		for ( Interrupt interrupt : Interrupt.values() ) {
+			this.raisedAt.set( interrupt.ordinal(), NOT_RAISED );
+			this.processes.put( interrupt, new ConcurrentLinkedQueue<>() );
+			this.latencies.put( interrupt, new Histogram() );
+		}
+	}
+
+	/**
+	 * Sets the handler of an interrupt. The handler is called on the CPU's thread, and must not block.
+	 *
+	 * @param interrupt The interrupt.
+	 * @param handler   The handler, which is given the {@link PCB} of each process the interrupt was raised for, or
+	 *                  {@code null} to only record the interrupt.
+	 */
+	public void setHandler( @NotNull Interrupt interrupt, @Nullable Consumer<PCB> handler ) {
+		this.handlers.put( interrupt, handler );
+	}
+
+	/**
+	 * Raises an interrupt on the CPU, and wakes the CPU up if it is idle. This never blocks.
+	 *
+	 * @param interrupt The interrupt.
+	 * @param pcb       The {@link PCB} of the process the interrupt is about.
+	 */
+	public void raise( @NotNull Interrupt interrupt, @NotNull PCB pcb ) {
+		raise( interrupt, pcb, Clock.INSTANCE.nanoTime() );
+	}
+
+	/**
+	 * Raises an interrupt on the CPU as of the given time, which is where its latency is measured from.
+	 *
+	 * @param interrupt The interrupt.
+	 * @param pcb       The {@link PCB} of the process the interrupt is about.
+	 * @param time      The time the interrupt should have been raised at, from {@link Clock#nanoTime()}.
+	 */
+	void raise( @NotNull Interrupt interrupt, @NotNull PCB pcb, long time ) {
+		this.processes.get( interrupt ).add( pcb );
+		this.raisedAt.compareAndSet( interrupt.ordinal(), NOT_RAISED, time );
+		this.vector.getAndUpdate( vector -> vector | interrupt.mask() );
+		this.cpu.wake();
+	}
+
+	/**
+	 * Checks if any interrupt is waiting to be handled.
+	 *
+	 * @return {@code true} if the vector has a bit set.
+	 */
+	boolean isPending() {
+		return this.vector.get() != 0;
+	}
+
+	/**
+	 * Handles every pending interrupt. This must only be called on the CPU's thread.
+	 *
+	 * @return The bits of the interrupts that were handled.
+	 */
+	int handle() {
+		int vector = this.vector.getAndSet( 0 );
+		if ( vector == 0 ) {
+			return 0;
+		}
+		long now = Clock.INSTANCE.nanoTime();
+		for ( Interrupt interrupt : Interrupt.values() ) {
+			if ( ( vector & interrupt.mask() ) == 0 ) {
+				continue;
+			}
+			long raised = this.raisedAt.getAndSet( interrupt.ordinal(), NOT_RAISED );
+			if ( raised != NOT_RAISED ) {
+				this.latencies.get( interrupt ).record( now - raised );
+			}
+			Consumer<PCB> handler = this.handlers.get( interrupt );
+			Queue<PCB> processes = this.processes.get( interrupt );
+			PCB pcb;
+			while ( ( pcb = processes.poll() ) != null ) {
+				if ( handler != null ) {
+					handler.accept( pcb );
+				}
+			}
+		}
+		return vector;
+	}
+
+	/**
+	 * Retrieves the histogram of the latency of an interrupt, from when it was raised until it was handled.
+	 *
+	 * @param interrupt The interrupt.
+	 * @return The {@link Histogram} of latencies in nanoseconds.
+	 */
+	public Histogram getLatencies( @NotNull Interrupt interrupt ) {
+		return this.latencies.get( interrupt );
+	}
+}
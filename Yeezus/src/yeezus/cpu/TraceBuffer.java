@@ -0,0 +1,124 @@
+package yeezus.cpu;
+
+import java.io.PrintStream;
+
+/**
+ * <p>A fixed-size ring buffer that records the execution trace of a {@link CPU}. Each entry holds the PID, the
+ * Program Counter and the opcode of an executed instruction, along with the register it changed and that register's
+ * new value. Entries are stored as primitives, so recording an instruction does not allocate anything.</p><p>Once the
+ * buffer is full, the oldest entries are overwritten. The entries are only formatted into {@link String}s when the
+ * trace is printed with {@link TraceBuffer#print(PrintStream)}.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+class TraceBuffer {
+
+	/**
+	 * Used as the register value of an entry whose instruction did not change a register.
+	 */
+	static final int NO_REGISTER = -1;
+
+	private final int[] pids, pcs;
+	private final byte[] opcodes, registers;
+	private final long[] values;
+	private int next = 0;
+	private int size = 0;
+
+	/**
+	 * Constructs a new trace buffer that holds the given amount of entries.
+	 *
+	 * @param capacity The maximum amount of entries held by this buffer.
+	 */
+	TraceBuffer( int capacity ) {
+		if ( capacity <= 0 ) {
+			throw new IllegalArgumentException( "The trace buffer capacity must be positive." );
+		}
+		this.pids = new int[capacity];
+		this.pcs = new int[capacity];
+		this.opcodes = new byte[capacity];
+		this.registers = new byte[capacity];
+		this.values = new long[capacity];
+	}
+
+	/**
+	 * Records an executed instruction, overwriting the oldest entry if the buffer is full.
+	 *
+	 * @param pid      The PID of the process that executed the instruction.
+	 * @param pc       The Program Counter of the executed instruction.
+	 * @param opcode   The opcode of the executed instruction.
+	 * @param register The register changed by the instruction, or {@link TraceBuffer#NO_REGISTER}.
+	 * @param value    The new value of the changed register.
+	 */
+	void record( int pid, int pc, int opcode, int register, long value ) {
+		int i = this.next;
+		this.pids[i] = pid;
+		this.pcs[i] = pc;
+		this.opcodes[i] = (byte) opcode;
+		this.registers[i] = (byte) register;
+		this.values[i] = value;
+		this.next = i + 1 == this.pids.length ? 0 : i + 1;
+		if ( this.size < this.pids.length ) {
+			this.size++;
+		}
+	}
+
+	/**
+	 * Retrieves the amount of entries currently held by this buffer.
+	 *
+	 * @return The amount of entries in this buffer.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Retrieves the maximum amount of entries held by this buffer.
+	 *
+	 * @return The capacity of this buffer.
+	 */
+	int getCapacity() {
+		return this.pids.length;
+	}
+
+	/**
+	 * Removes all entries from this buffer.
+	 */
+	void clear() {
+		this.next = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Formats the entry that was recorded {@code age} entries ago. An age of {@code 0} is the most recent entry.
+	 *
+	 * @param age How many entries ago the requested entry was recorded.
+	 * @return A {@link String} describing the entry.
+	 */
+	String format( int age ) {
+		if ( age < 0 || age >= this.size ) {
+			throw new IndexOutOfBoundsException( "There is no trace entry " + age + " entries back." );
+		}
+		int i = ( this.next - 1 - age + this.pids.length ) % this.pids.length;
+		StringBuilder entry = new StringBuilder( "PID: " ).append( this.pids[i] ).append( "\tPC: " )
+				.append( this.pcs[i] ).append( "\tInstruction: " )
+				.append( InstructionSet.fromCode( this.opcodes[i] ) );
+		if ( this.registers[i] != NO_REGISTER ) {
+			entry.append( "\tRegister " ).append( this.registers[i] ).append( ": " )
+					.append( String.format( "0x%08X", this.values[i] ) );
+		}
+		return entry.toString();
+	}
+
+	/**
+	 * Prints the entries of this buffer, most recent first, and then clears it.
+	 *
+	 * @param out The {@link PrintStream} the entries are printed to.
+	 */
+	void print( PrintStream out ) {
+		for ( int age = 0; age < this.size; age++ ) {
+			out.println( format( age ) );
+		}
+		clear();
+	}
+}
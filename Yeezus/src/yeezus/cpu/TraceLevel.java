@@ -0,0 +1,25 @@
+package yeezus.cpu;
+
+/**
+ * The levels of detail that a {@link CPU} can record in its execution trace. The level can be set for a whole CPU
+ * with {@link CPU#setTraceLevel(TraceLevel)}, or for a single process with {@link CPU#setTraceLevel(int,
+ * TraceLevel)}.
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public enum TraceLevel {
+	/**
+	 * Nothing is recorded, and nothing is printed when the process fails.
+	 */
+	OFF, /**
+	 * No instructions are recorded, but the state of the CPU is still printed when the process fails.
+	 */
+	ERROR, /**
+	 * Only a sample of the executed instructions are recorded. See {@link CPU#setSampling(int, boolean)}.
+	 */
+	SAMPLED, /**
+	 * Every executed instruction is recorded.
+	 */
+	FULL
+}
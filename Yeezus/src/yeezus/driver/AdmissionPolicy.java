@@ -0,0 +1,79 @@
+package yeezus.driver;
+
+import com.sun.istack.internal.NotNull;
+import yeezus.pcb.PCB;
+
+import java.util.List;
+
+/**
+ * <p>An enumeration of the ways the {@link Scheduler} can choose which job to load into RAM next.</p><p>Apart from
+ * {@link AdmissionPolicy#InOrder}, the policies look past the first job in the Job Queue for a job that fits in the
+ * free RAM. Jobs are grouped into priority classes of {@link PCB#PRIORITY_CLASS_WIDTH} priorities each, and a job
+ * is only chosen from a lower class if no job from a higher class fits. To keep large jobs from starving, the Scheduler
+ * stops looking past the first job once it has been passed over too many times. See {@link
+ * Driver#setFairnessBound(int)}.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public enum AdmissionPolicy {
+	/**
+	 * Jobs are loaded strictly in the order of the Job Queue. If the first job doesn't fit, nothing is loaded.
+	 */
+	InOrder {
+		@Override PCB select( @NotNull List<PCB> candidates, int freeSpace ) {
+			return candidates.isEmpty() || candidates.get( 0 ).getTotalSize() > freeSpace ? null : candidates.get( 0 );
+		}
+
+		@Override boolean packsBefore( @NotNull PCB candidate, @NotNull PCB chosen ) {
+			return false;
+		}
+	}, /**
+	 * The first job in the Job Queue that fits is loaded.
+	 */
+	FirstFit {
+		@Override boolean packsBefore( @NotNull PCB candidate, @NotNull PCB chosen ) {
+			return false;
+		}
+	}, /**
+	 * <p>Best-Fit / First-Fit-Decreasing</p><p>The largest job that fits is loaded, which leaves the least RAM unused.
+	 * Since the {@link yeezus.memory.MMU} maps RAM one word at a time, RAM is a single bin, and repeatedly loading the
+	 * best fit loads the same jobs as first-fit-decreasing.</p>
+	 */
+	BestFit {
+		@Override boolean packsBefore( @NotNull PCB candidate, @NotNull PCB chosen ) {
+			return candidate.getTotalSize() > chosen.getTotalSize();
+		}
+	};
+
+	/**
+	 * Chooses the job to load next.
+	 *
+	 * @param candidates The first jobs in the Job Queue, in the order of the Job Queue.
+	 * @param freeSpace  The amount of free words in RAM.
+	 * @return The {@link PCB} of the job to load, or {@code null} if none of the jobs should be loaded.
+	 */
+	PCB select( @NotNull List<PCB> candidates, int freeSpace ) {
+		PCB chosen = null;
+		for ( PCB candidate : candidates ) {
+			if ( candidate.getTotalSize() > freeSpace ) {
+				continue;
+			}
+			if ( chosen == null || candidate.getPriorityClass() > chosen.getPriorityClass() || (
+					candidate.getPriorityClass() == chosen.getPriorityClass() && packsBefore( candidate, chosen ) ) ) {
+				chosen = candidate;
+			}
+		}
+		return chosen;
+	}
+
+	/**
+	 * Checks if a job should be loaded before the job currently chosen from the same priority class. Jobs that come
+	 * first in the Job Queue win ties.
+	 *
+	 * @param candidate The job that comes later in the Job Queue.
+	 * @param chosen    The job currently chosen.
+	 * @return {@code true} if the candidate should be loaded instead.
+	 */
+	abstract boolean packsBefore( @NotNull PCB candidate, @NotNull PCB chosen );
+}
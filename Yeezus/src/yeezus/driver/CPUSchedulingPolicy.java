@@ -1,5 +1,9 @@
 package yeezus.driver;
 
+import yeezus.pcb.PCB;
+
+import java.util.Comparator;
+
 /**
  * An enumeration of the different types of scheduling policies that the {@link yeezus} Operating System must schedule
  * its processes by.
@@ -13,11 +17,73 @@ public enum CPUSchedulingPolicy {
 	 * executed.</p>
 	 */
 	FCFS, /**
-	 * The processes with the highest priority will be executed first.
+	 * The processes with the highest effective priority will be executed first. The effective priority of a process
+	 * grows while it waits, so that low priority processes can't starve. See {@link PCB#getEffectivePriority()} and
+	 * {@link Driver#setAgingRate(double)}.
+	 */
+	Priority, /**
+	 * <p>Round-Robin</p><p>The processes are executed in First-Come, First-Served order, but each process is preempted
+	 * once it has used up its time quantum, and goes to the back of the Ready Queue.</p>
+	 */
+	RoundRobin, /**
+	 * <p>Multi-Level Feedback Queue</p><p>The processes are kept in several Ready Queues with growing time quanta, and
+	 * the highest non-empty queue is always executed first. Processes that use their whole quantum are moved down a
+	 * level, processes that do I/O are moved up a level, and all processes are periodically boosted back to the top.
+	 * See {@link yeezus.pcb.MultilevelFeedbackQueue}.</p>
+	 */
+	MLFQ, /**
+	 * <p>Shortest Job First</p><p>The processes with the shortest estimated length are loaded and executed first, and
+	 * run until they terminate. See {@link yeezus.pcb.BurstHistory}.</p>
+	 */
+	SJF, /**
+	 * <p>Shortest Remaining Time First</p><p>The processes with the shortest estimated remaining length are executed
+	 * first. A running process is preempted as soon as a process with a shorter remaining length is waiting in the Ready
+	 * Queue.</p>
+	 */
+	SRTF, /**
+	 * <p>Earliest Deadline First</p><p>The processes with the earliest deadline are executed first, and processes
+	 * without a deadline are only executed when no process with a deadline is ready. A running process is preempted as
+	 * soon as a process with an earlier deadline is waiting in the Ready Queue. See {@link PCB#getAbsoluteDeadline()}.</p>
+	 */
+	EDF, /**
+	 * <p>Stride Scheduling</p><p>Each group of processes holds tickets, and the CPUs are shared between the groups in
+	 * proportion to their tickets. Within a group, processes are executed in First-Come, First-Served order, and every
+	 * process is preempted once it has used up its time quantum. See {@link yeezus.pcb.StrideQueue} and {@link
+	 * Driver#setTickets(int, int)}.</p>
+	 */
+	Stride;
+
+	private static final Comparator<PCB> HIGHEST_PRIORITY = Comparator.comparingDouble( PCB::getAgingKey ).reversed();
+	private static final Comparator<PCB> SHORTEST_FIRST = Comparator.comparingDouble( PCB::getRemainingBurst );
+	private static final Comparator<PCB> EARLIEST_DEADLINE = Comparator.comparingLong( PCB::getAbsoluteDeadline );
+
+	/**
+	 * Checks if this policy preempts a running process as soon as a more important one is ready.
+	 *
+	 * @return {@code true} if a running process can be preempted by a process in the Ready Queue.
+	 */
+	public boolean isPreemptive() {
+		return this == SRTF || this == EDF;
+	}
+
+	/**
+	 * Retrieves the order in which this policy takes processes out of the Job and Ready Queues. Processes that are
+	 * equal under the comparator are taken in the order they were added. See {@link yeezus.pcb.ProcessQueue}.
+	 *
+	 * @return A {@link Comparator} that sorts the process that should run first to the front, or {@code null} if the
+	 * processes are taken in the order they were added.
 	 */
-	Priority//,
-	//	/**
-	//	* <p>Shortest Job First</p><p>The processes with the shortest burt times will be executed first.</p>
-	//	*/
-	//	 SJF
+	public Comparator<PCB> getComparator() {
+		switch ( this ) {
+			case Priority:
+				return HIGHEST_PRIORITY;
+			case SJF:
+			case SRTF:
+				return SHORTEST_FIRST;
+			case EDF:
+				return EARLIEST_DEADLINE;
+			default:
+				return null;
+		}
+	}
 }
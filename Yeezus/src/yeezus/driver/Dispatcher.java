@@ -2,37 +2,267 @@ package yeezus.driver;
 
 import yeezus.cpu.CPU;
 import yeezus.memory.MMU;
-import yeezus.memory.Memory;
+import yeezus.pcb.MultilevelFeedbackQueue;
 import yeezus.pcb.PCB;
+import yeezus.pcb.ProcessQueue;
+import yeezus.pcb.StrideQueue;
 import yeezus.pcb.TaskManager;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 public class Dispatcher implements Runnable {
 
+	// How many processes at the front of the Ready Queue are considered for each CPU when dispatching by affinity
+	private static final int AFFINITY_WINDOW = 2;
+
 	private TaskManager taskManager;
 	private CPU[] cpus;
 	private MMU mmu;
+	private CPUSchedulingPolicy policy;
+	private boolean workStealing = false;
+	private long affinityWait = 0;
+	private boolean deferred = false;
+	private int activeCPUs;
+	private final Queue<PCB> ioCompleted = new ConcurrentLinkedQueue<>();
 
 	Dispatcher( TaskManager taskManager, CPU[] cpus, MMU mmu ) {
+		this( taskManager, cpus, mmu, CPUSchedulingPolicy.FCFS );
+	}
+
+	Dispatcher( TaskManager taskManager, CPU[] cpus, MMU mmu, CPUSchedulingPolicy policy ) {
 		this.taskManager = taskManager;
 		this.cpus = cpus;
 		this.mmu = mmu;
+		this.policy = policy;
+		this.activeCPUs = cpus.length;
+	}
+
+	/**
+	 * Sets whether each CPU has a ready queue of its own. If so, the CPUs take their next process themselves, and this
+	 * Dispatcher only hands the newly admitted processes in the central Ready Queue out to the CPUs. See {@link
+	 * CPU#enableWorkStealing(CPU[])}.
+	 *
+	 * @param workStealing {@code true} if the CPUs have ready queues of their own.
+	 */
+	void setWorkStealing( boolean workStealing ) {
+		this.workStealing = workStealing;
+	}
+
+	/**
+	 * <p>Sets how long a preempted process may wait for the CPU it last ran on, whose cache may still hold its lines.
+	 * See {@link CPU#getWarmStarts()}.</p><p>A free CPU first takes the first process near the front of the Ready
+	 * Queue that last ran on it. Otherwise, it takes the first process that has never run, or that has waited at least
+	 * this long, and if there is none, it stays idle until the next iteration. Affinity only applies to policies whose
+	 * Ready Queue is a {@link ProcessQueue}.</p>
+	 *
+	 * @param affinityWait The longest time in nanoseconds that a process waits for its CPU, or {@code 0} to always
+	 *                     hand the first process in the Ready Queue to the first free CPU.
+	 */
+	void setAffinityWait( long affinityWait ) {
+		this.affinityWait = affinityWait;
+	}
+
+	/**
+	 * Sets how many CPUs are handed processes. Only the first CPUs are active, and the others are parked, although a
+	 * process that is still running on a parked CPU is allowed to finish, or is put back in the Ready Queue once it is
+	 * preempted. See {@link ElasticPool}.
+	 *
+	 * @param activeCPUs The amount of active CPUs.
+	 */
+	void setActiveCPUs( int activeCPUs ) {
+		this.activeCPUs = activeCPUs;
+	}
+
+	/**
+	 * Checks if the last iteration left a CPU idle so that a process could wait for the CPU it last ran on. If so, the
+	 * next iteration should happen within the affinity wait, even if nothing else happens.
+	 *
+	 * @return {@code true} if a CPU was left idle.
+	 */
+	boolean hasDeferred() {
+		return this.deferred;
+	}
+
+	/**
+	 * Hands a process whose I/O has completed back to this Dispatcher, which puts it in the Ready Queue on its next
+	 * iteration. This can be called from any thread. See {@link yeezus.cpu.DMAEngine}.
+	 *
+	 * @param pcb The {@link PCB} of the process, which must be {@link PCB.Status#READY}.
+	 */
+	void ioCompleted( PCB pcb ) {
+		this.ioCompleted.add( pcb );
 	}
 
 	@Override public void run() {
-		for ( CPU cpu : this.cpus ) {
-			if ( ( cpu.getProcess() == null || PCB.Status.RUNNING != cpu.getProcess().getStatus() )
-					&& this.taskManager.getReadyQueue().size() > 0 ) {
+		Queue<PCB> readyQueue = this.taskManager.getReadyQueue();
+		MultilevelFeedbackQueue feedbackQueue =
+				readyQueue instanceof MultilevelFeedbackQueue ? (MultilevelFeedbackQueue) readyQueue : null;
+		PCB completed;
+		while ( ( completed = this.ioCompleted.poll() ) != null ) {
+			if ( feedbackQueue != null ) {
+				feedbackQueue.feedback( completed, feedbackQueue.getQuantum( completed.getQueueLevel() ) );
+			}
+			readyQueue.add( completed );
+		}
+		if ( this.workStealing ) {
+			distribute( readyQueue );
+			return;
+		}
+		StrideQueue strideQueue = readyQueue instanceof StrideQueue ? (StrideQueue) readyQueue : null;
+		boolean affinity = this.affinityWait > 0 && readyQueue instanceof ProcessQueue;
+		List<CPU> free = new ArrayList<>();
+		for ( int i = 0; i < this.cpus.length; i++ ) {
+			CPU cpu = this.cpus[i];
+			PCB current = cpu.getProcess();
+			PCB.Status status = current == null ? null : current.getStatus();
+			if ( PCB.Status.READY == status ) {
+				// The process was preempted, so it goes back into the Ready Queue
+				if ( feedbackQueue != null ) {
+					feedbackQueue.feedback( current, feedbackQueue.getQuantum( current.getQueueLevel() ) );
+				}
+				readyQueue.add( current );
+			} else if ( PCB.Status.TERMINATED == status && strideQueue != null ) {
+				// Preempted processes are charged when they are put back, but terminated ones have to be charged here
+				strideQueue.charge( current );
+			}
+			if ( i >= this.activeCPUs ) {
+				// Parked CPUs aren't handed any more processes
+				continue;
+			}
+			if ( PCB.Status.RUNNING != status && affinity ) {
+				// A CPU whose process was just preempted has to be given another one before any CPU is left idle
+				free.add( PCB.Status.READY == status ? 0 : free.size(), cpu );
+			} else if ( PCB.Status.RUNNING != status && !readyQueue.isEmpty() ) {
 				PCB next;
-				next = this.taskManager.getReadyQueue().remove();
-				cpu.setProcess( next );
-				Memory cache = cpu.getCache();
-				for ( int i = 0; i < next.getTotalSize() && i < cache.getCapacity(); i++ ) {
-					cache.write( i, this.mmu.read( next, i ) );
+				next = readyQueue.remove();
+				if ( feedbackQueue != null ) {
+					cpu.setProcess( next, feedbackQueue.getQuantum( next.getQueueLevel() ) );
+				} else {
+					cpu.setProcess( next );
 				}
-				synchronized ( cpu ) {
-					cpu.notify();
+			}
+		}
+		this.deferred = false;
+		if ( affinity ) {
+			dispatchByAffinity( free, (ProcessQueue) readyQueue );
+		}
+
+		if ( this.policy.isPreemptive() ) {
+			preemptLast( readyQueue );
+		}
+	}
+
+	/**
+	 * Hands the processes near the front of the Ready Queue to the free CPUs, preferring the CPU each process last ran
+	 * on. See {@link Dispatcher#setAffinityWait(long)}.
+	 *
+	 * @param free       The free CPUs, starting with the CPUs whose process was just put back in the Ready Queue.
+	 * @param readyQueue The Ready Queue.
+	 */
+	private void dispatchByAffinity( List<CPU> free, ProcessQueue readyQueue ) {
+		List<PCB> candidates = readyQueue.peek( AFFINITY_WINDOW * this.cpus.length );
+		// First, every free CPU takes the first process that last ran on it
+		for ( Iterator<CPU> cpus = free.iterator(); cpus.hasNext(); ) {
+			CPU cpu = cpus.next();
+			for ( PCB candidate : candidates ) {
+				if ( candidate.getCPUID() == cpu.getCPUID() ) {
+					candidates.remove( candidate );
+					readyQueue.remove( candidate );
+					cpu.setProcess( candidate );
+					cpus.remove();
+					break;
 				}
 			}
 		}
+		// Then the other free CPUs take processes that don't have to wait for their CPU
+		for ( CPU cpu : free ) {
+			PCB next = null;
+			for ( PCB candidate : candidates ) {
+				if ( candidate.getCPUID() < 0 || candidate.getTimeInStatus() >= this.affinityWait ) {
+					next = candidate;
+					break;
+				}
+			}
+			PCB current = cpu.getProcess();
+			if ( next == null && current != null && current.getStatus() == PCB.Status.READY ) {
+				// The preempted process is no longer on this CPU once it is in the Ready Queue, so this CPU can't idle
+				next = candidates.isEmpty() ? readyQueue.peek() : candidates.get( 0 );
+			}
+			if ( next == null ) {
+				this.deferred |= !readyQueue.isEmpty();
+				continue;
+			}
+			candidates.remove( next );
+			readyQueue.remove( next );
+			cpu.setProcess( next );
+		}
+	}
+
+	/**
+	 * Moves every process in the central Ready Queue to the ready queue of a CPU. An idle CPU with an empty queue is
+	 * preferred, then the CPU with the shortest queue. Idle CPUs are woken up afterwards, so that they can steal any
+	 * processes left waiting behind a busy CPU.
+	 *
+	 * @param readyQueue The central Ready Queue.
+	 */
+	private void distribute( Queue<PCB> readyQueue ) {
+		PCB next;
+		while ( ( next = readyQueue.poll() ) != null ) {
+			CPU target = null;
+			for ( CPU cpu : this.cpus ) {
+				if ( target == null || rank( cpu ) < rank( target ) ) {
+					target = cpu;
+				}
+			}
+			target.enqueue( next );
+		}
+		for ( CPU cpu : this.cpus ) {
+			if ( isIdle( cpu ) ) {
+				cpu.wake();
+			}
+		}
+	}
+
+	// Orders CPUs by how soon they can run another process. Idle CPUs come before busy CPUs with the same queue length
+	private int rank( CPU cpu ) {
+		return 2 * cpu.getQueueLength() + ( isIdle( cpu ) ? 0 : 1 );
+	}
+
+	private boolean isIdle( CPU cpu ) {
+		PCB current = cpu.getProcess();
+		return current == null || current.getStatus() != PCB.Status.RUNNING;
+	}
+
+	/**
+	 * Preempts the running process that should run last under the scheduling policy, if the first process in the
+	 * Ready Queue should run before it. The preempted process is put back in the Ready Queue on the next iteration.
+	 * Only the active CPUs are searched, since a parked CPU wouldn't be handed the first process in its place.
+	 *
+	 * @param readyQueue The Ready Queue, which is sorted by the scheduling policy.
+	 */
+	private void preemptLast( Queue<PCB> readyQueue ) {
+		PCB head = readyQueue.peek();
+		if ( head == null ) {
+			return;
+		}
+		Comparator<PCB> comparator = this.policy.getComparator();
+		CPU lastCPU = null;
+		PCB last = null;
+		for ( int i = 0; i < this.activeCPUs; i++ ) {
+			PCB current = this.cpus[i].getProcess();
+			if ( current != null && current.getStatus() == PCB.Status.RUNNING && ( last == null
+					|| comparator.compare( current, last ) > 0 ) ) {
+				lastCPU = this.cpus[i];
+				last = current;
+			}
+		}
+		if ( last != null && comparator.compare( head, last ) < 0 ) {
+			lastCPU.preempt();
+		}
 	}
 }
@@ -1,15 +1,39 @@
 package yeezus.driver;
 
 import com.sun.istack.internal.NotNull;
+import yeezus.Clock;
 import yeezus.DuplicateIDException;
+import yeezus.Histogram;
+import yeezus.IdleStrategy;
 import yeezus.cpu.CPU;
+import yeezus.cpu.CostTable;
+import yeezus.cpu.DMAEngine;
+import yeezus.cpu.DMAQueuePolicy;
+import yeezus.cpu.Interrupt;
+import yeezus.cpu.TraceLevel;
 import yeezus.memory.InvalidWordException;
 import yeezus.memory.MMU;
 import yeezus.memory.Memory;
+import yeezus.pcb.MultilevelFeedbackQueue;
 import yeezus.pcb.PCB;
+import yeezus.pcb.ProcessQueue;
+import yeezus.pcb.StrideQueue;
 import yeezus.pcb.TaskManager;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class represents the CPU Driver within the {@link yeezus} operating system. Multiple instances of this class
@@ -22,15 +46,60 @@ import java.io.File;
  */
 public class Driver {
 
+	/**
+	 * The time quantum, in instructions, given to processes under the {@link CPUSchedulingPolicy#RoundRobin} and {@link
+	 * CPUSchedulingPolicy#Stride} policies unless it is changed with {@link Driver#setTimeQuantum(int)}.
+	 */
+	public static final int DEFAULT_TIME_QUANTUM = 32;
+
+	/**
+	 * The priority gained for every millisecond spent waiting under the {@link CPUSchedulingPolicy#Priority} policy
+	 * unless it is changed with {@link Driver#setAgingRate(double)}.
+	 */
+	public static final double DEFAULT_AGING_RATE = 0.1;
+
+	/**
+	 * The time in nanoseconds between each sample of the shares achieved under the {@link CPUSchedulingPolicy#Stride}
+	 * policy.
+	 */
+	public static final long SHARE_SAMPLE_INTERVAL = 1000000;
+
 	private static Loader loader;
 	private static TaskManager taskManager;
 	private final int registerSize, cacheSize, ramSize;
+	private final CPUSchedulingPolicy schedulingPolicy;
 	private Scheduler scheduler;
 	private Dispatcher dispatcher;
 	private CPU[] cpus;
 	private Thread[] threads;
 	private Memory disk;
-	private long[] idleTimes, executeTimes;
+	private MMU mmu;
+	private long[] idleTimes, executeTimes, contextSwitchTimes;
+	private int[] contextSwitches;
+	private long rampUpTime = -1;
+	private double ramUtilization;
+	private StrideQueue strideQueue;
+	// A permit is released for every event that the Driver has to react to
+	private final Semaphore events = new Semaphore( 0 );
+	private CountDownLatch remaining;
+	private Set<PCB> terminated;
+	private int pageFaults = 0;
+	private volatile boolean cpuFailed = false;
+	private long controlTime = -1;
+	private long cpuHostTime = 0;
+	private IdleStrategy controlIdleStrategy = IdleStrategy.BLOCK;
+	private int carrierThreads = 0;
+	private long runStart, runTime, lastShareSample, usedSamples, samples;
+	private int dmaThreads = 0;
+	private DMAQueuePolicy dmaQueuePolicy = DMAQueuePolicy.FIFO;
+	private long dmaLatency = 0, dmaBandwidth = 0;
+	private long affinityWait = 0;
+	private LoadBalancer loadBalancer;
+	private ElasticPool elasticPool;
+	private long cpuTime;
+	private int completed;
+	private DMAEngine dmaEngine;
+	private Map<Long, Map<Integer, Double>> shareHistory = new LinkedHashMap<>();
 
 	/**
 	 * Constructs a new Driver instance from the given parameters.
@@ -63,13 +132,15 @@ public class Driver {
 		this.ramSize = ramSize;
 		this.registerSize = registerSize;
 		this.cacheSize = cacheSize;
+		this.schedulingPolicy = schedulingPolicy;
 
 		MMU mmu = new MMU( new Memory( ramSize ) );
+		this.mmu = mmu;
 
 		this.cpus = new CPU[numCPUs];
 
 		this.scheduler = new Scheduler( mmu, disk, taskManager, schedulingPolicy );
-		this.dispatcher = new Dispatcher( taskManager, this.cpus, mmu );
+		this.dispatcher = new Dispatcher( taskManager, this.cpus, mmu, schedulingPolicy );
 
 		// Create threads
 		this.threads = new Thread[this.cpus.length];
@@ -82,7 +153,27 @@ public class Driver {
 			this.threads[i].setUncaughtExceptionHandler( ( t, e ) -> {
 				e.printStackTrace();
 				cpu.printDump();
+				this.cpuFailed = true;
+				this.events.release();
 			} );
+			cpu.setProcessListener( this::processStopped );
+			cpu.getInterruptController().setHandler( Interrupt.IO_COMPLETION, this::ioCompleted );
+			cpu.getInterruptController().setHandler( Interrupt.PAGE_FAULT, this::pageFault );
+		}
+
+		if ( schedulingPolicy == CPUSchedulingPolicy.RoundRobin || schedulingPolicy == CPUSchedulingPolicy.Stride ) {
+			setTimeQuantum( DEFAULT_TIME_QUANTUM );
+		} else if ( schedulingPolicy == CPUSchedulingPolicy.Priority ) {
+			setAgingRate( DEFAULT_AGING_RATE );
+		}
+
+		if ( schedulingPolicy == CPUSchedulingPolicy.MLFQ ) {
+			taskManager.setReadyQueue( new MultilevelFeedbackQueue() );
+		} else if ( schedulingPolicy == CPUSchedulingPolicy.Stride ) {
+			this.strideQueue = new StrideQueue();
+			taskManager.setReadyQueue( this.strideQueue );
+		} else if ( schedulingPolicy.getComparator() != null ) {
+			taskManager.setReadyQueue( new ProcessQueue( schedulingPolicy.getComparator() ) );
 		}
 	}
 
@@ -114,6 +205,720 @@ public class Driver {
 		return executeTimes;
 	}
 
+	/**
+	 * Retrieves the amount of context switches performed by each CPU during the last run.
+	 *
+	 * @return The amount of context switches performed by each CPU.
+	 */
+	public int[] getContextSwitches() {
+		return this.contextSwitches;
+	}
+
+	/**
+	 * Retrieves the time each CPU spent saving and restoring the context of preempted processes during the last run.
+	 *
+	 * @return The time in nanoseconds that each CPU spent on context switches.
+	 */
+	public long[] getContextSwitchTimes() {
+		return this.contextSwitchTimes;
+	}
+
+	/**
+	 * Retrieves the average cost of a context switch during the last run, across all CPUs.
+	 *
+	 * @return The average time in nanoseconds spent on a context switch, or {@code 0} if there were none.
+	 */
+	public long getAverageContextSwitchTime() {
+		long totalTime = 0;
+		int total = 0;
+		for ( int i = 0; i < this.cpus.length; i++ ) {
+			totalTime += this.contextSwitchTimes[i];
+			total += this.contextSwitches[i];
+		}
+		return total == 0 ? 0 : totalTime / total;
+	}
+
+	/**
+	 * Retrieves the amount of processes that completed after their deadline. See {@link PCB#missedDeadline()}.
+	 *
+	 * @return The amount of missed deadlines.
+	 */
+	public int getDeadlineMisses() {
+		int misses = 0;
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			if ( pcb.missedDeadline() ) {
+				misses++;
+			}
+		}
+		return misses;
+	}
+
+	/**
+	 * Sets the amount of tickets held by a group of processes under the {@link CPUSchedulingPolicy#Stride} policy. Each
+	 * group's share of the CPUs is its fraction of all of the tickets. See {@link StrideQueue}.
+	 *
+	 * @param group   The ID of the group, as given in the program file.
+	 * @param tickets The amount of tickets held by the group.
+	 * @throws IllegalStateException Thrown if this system doesn't use the Stride policy.
+	 */
+	public void setTickets( int group, int tickets ) {
+		if ( this.strideQueue == null ) {
+			throw new IllegalStateException( "Tickets can only be set under the Stride scheduling policy." );
+		}
+		this.strideQueue.setTickets( group, tickets );
+	}
+
+	/**
+	 * Retrieves the share of the CPUs that each group should achieve under the {@link CPUSchedulingPolicy#Stride}
+	 * policy.
+	 *
+	 * @return A {@link Map} from each group's ID to its target share, or an empty map under any other policy.
+	 */
+	public Map<Integer, Double> getTargetShares() {
+		return this.strideQueue == null ? Collections.emptyMap() : this.strideQueue.getTargetShares();
+	}
+
+	/**
+	 * Retrieves the shares of the CPUs achieved by each group during the last run under the {@link
+	 * CPUSchedulingPolicy#Stride} policy. A sample is taken every {@link Driver#SHARE_SAMPLE_INTERVAL}, and once more at
+	 * the end of the run. Each sample holds the shares achieved from the start of the run up to that point.
+	 *
+	 * @return A {@link Map} from the time of each sample, in nanoseconds since the start of the run, to the share
+	 * achieved by each group at that time. The map is empty under any other policy.
+	 */
+	public Map<Long, Map<Integer, Double>> getShareHistory() {
+		return this.shareHistory;
+	}
+
+	/**
+	 * <p>Gives every CPU a ready queue of its own, so that the CPUs take their next process themselves instead of
+	 * waiting for the {@link Dispatcher}, and idle CPUs steal processes from the queues of busy CPUs. The Dispatcher only
+	 * hands newly admitted processes out to the CPUs. See {@link CPU#enableWorkStealing(CPU[])}.</p><p>The CPUs'
+	 * queues are First-Come, First-Served, so this can only be used with the {@link CPUSchedulingPolicy#FCFS} and
+	 * {@link CPUSchedulingPolicy#RoundRobin} policies. This should only be done before the system starts running.</p>
+	 *
+	 * @throws IllegalStateException Thrown if this system uses any other scheduling policy, or if the CPUs are elastic.
+	 */
+	public void enableWorkStealing() {
+		if ( this.elasticPool != null ) {
+			throw new IllegalStateException( "Work stealing can't be used with elastic CPUs." );
+		}
+		if ( this.schedulingPolicy != CPUSchedulingPolicy.FCFS
+				&& this.schedulingPolicy != CPUSchedulingPolicy.RoundRobin ) {
+			throw new IllegalStateException(
+					"Work stealing can't be used with the " + this.schedulingPolicy + " scheduling policy." );
+		}
+		for ( CPU cpu : this.cpus ) {
+			cpu.enableWorkStealing( this.cpus );
+		}
+		this.dispatcher.setWorkStealing( true );
+	}
+
+	/**
+	 * Retrieves the amount of processes each CPU stole from the ready queues of other CPUs during the last run. See
+	 * {@link Driver#enableWorkStealing()}.
+	 *
+	 * @return The amount of processes stolen by each CPU.
+	 */
+	public int[] getSteals() {
+		int[] steals = new int[this.cpus.length];
+		for ( int i = 0; i < this.cpus.length; i++ ) {
+			steals[i] = this.cpus[i].getSteals();
+		}
+		return steals;
+	}
+
+	/**
+	 * <p>Periodically migrates ready processes from the queues of overloaded CPUs to the queues of underloaded ones, on
+	 * top of work stealing. See {@link LoadBalancer}.</p><p>Work stealing only moves a process once a CPU has nothing
+	 * left to run, so a CPU that was handed a long queue keeps it while its peers only take one process at a time. The
+	 * balancer evens the queues out ahead of time instead. This should only be done before the system starts running.
+	 * </p>
+	 *
+	 * @param interval The time in nanoseconds between passes of the balancer.
+	 * @throws IllegalStateException    Thrown if work stealing hasn't been enabled, since the CPUs have no queues of
+	 *                                  their own to balance otherwise.
+	 * @throws IllegalArgumentException Thrown if the interval isn't positive.
+	 */
+	public void enableLoadBalancing( long interval ) {
+		if ( !this.cpus[0].isWorkStealing() ) {
+			throw new IllegalStateException( "Load balancing requires work stealing to be enabled." );
+		}
+		this.loadBalancer = new LoadBalancer( this.cpus, interval );
+	}
+
+	/**
+	 * Retrieves the amount of processes the load balancer migrated to each CPU during the last run. See {@link
+	 * Driver#enableLoadBalancing(long)}.
+	 *
+	 * @return The amount of processes migrated to each CPU, which are all {@code 0} if load balancing isn't enabled.
+	 */
+	public int[] getMigrations() {
+		return this.loadBalancer == null ? new int[this.cpus.length] : this.loadBalancer.getMigrations();
+	}
+
+	/**
+	 * Retrieves the average difference in load between the most and least loaded CPUs during the last run, as measured
+	 * by the load balancer before each of its passes. The load of a CPU is the amount of processes in its queue, plus
+	 * one if it is running a process. See {@link Driver#enableLoadBalancing(long)}.
+	 *
+	 * @return The average imbalance, in processes, or {@code 0} if load balancing isn't enabled.
+	 */
+	public double getImbalance() {
+		return this.loadBalancer == null ? 0 : this.loadBalancer.getImbalance();
+	}
+
+	/**
+	 * Retrieves the average time a ready process waited to be dispatched during the last run, from the moment it
+	 * became ready until a CPU started running it.
+	 *
+	 * @return The average dispatch latency in nanoseconds, or {@code 0} if nothing was dispatched.
+	 */
+	public long getAverageDispatchLatency() {
+		long latency = 0;
+		int dispatches = 0;
+		for ( CPU cpu : this.cpus ) {
+			latency += cpu.getDispatchLatency();
+			dispatches += cpu.getDispatches();
+		}
+		return dispatches == 0 ? 0 : latency / dispatches;
+	}
+
+	/**
+	 * Sets how quickly the effective priority of a process grows while it waits, so that a steady stream of high
+	 * priority processes can't starve the low priority ones. This should only be done before the system starts running.
+	 * See {@link PCB#getEffectivePriority()}.
+	 *
+	 * @param agingRate The priority gained for every millisecond spent waiting, or {@code 0} to not age.
+	 */
+	public void setAgingRate( double agingRate ) {
+		this.scheduler.setAgingRate( agingRate );
+	}
+
+	/**
+	 * Sets the time quantum of every CPU in this system. Once a process has executed this many instructions, it is
+	 * preempted and put back in the Ready Queue. See {@link CPU#setQuantum(int)}.
+	 *
+	 * @param quantum The amount of instructions in the time quantum, or {@code 0} to let processes run until they
+	 *                terminate.
+	 */
+	public void setTimeQuantum( int quantum ) {
+		for ( CPU cpu : this.cpus ) {
+			cpu.setQuantum( quantum );
+		}
+	}
+
+	/**
+	 * Sets a time quantum in nanoseconds for every CPU in this system. See {@link CPU#setQuantumNanos(long)}.
+	 *
+	 * @param quantumNanos The length of the time quantum in nanoseconds, or {@code 0} to not limit processes by time.
+	 */
+	public void setTimeQuantumNanos( long quantumNanos ) {
+		for ( CPU cpu : this.cpus ) {
+			cpu.setQuantumNanos( quantumNanos );
+		}
+	}
+
+	/**
+	 * Sets how long a preempted process may wait for the CPU it last ran on, whose cache may still hold its lines,
+	 * before it is handed to another CPU. See {@link Dispatcher#setAffinityWait(long)}. Affinity doesn't apply to the
+	 * MLFQ and Stride policies, or with work stealing, where a preempted process stays on its CPU's own queue.
+	 *
+	 * @param affinityWait The longest time in nanoseconds that a process waits for its CPU, or {@code 0} to dispatch
+	 *                     without affinity.
+	 */
+	public void setAffinityWait( long affinityWait ) {
+		if ( affinityWait < 0 ) {
+			throw new IllegalArgumentException( "The affinity wait cannot be negative." );
+		}
+		if ( affinityWait > 0 && ( this.schedulingPolicy == CPUSchedulingPolicy.FCFS
+				|| this.schedulingPolicy == CPUSchedulingPolicy.RoundRobin ) ) {
+			// Affinity looks past the front of the Ready Queue, which takes a ProcessQueue even in arrival order
+			taskManager.setReadyQueue( new ProcessQueue() );
+		}
+		this.affinityWait = affinityWait;
+		this.dispatcher.setAffinityWait( affinityWait );
+	}
+
+	/**
+	 * Retrieves the fraction of the resumed processes that were resumed on the CPU they last ran on. See {@link
+	 * CPU#getAffinityHits()}.
+	 *
+	 * @return The affinity hit rate, between {@code 0} and {@code 1}, or {@code 0} if no process was resumed.
+	 */
+	public double getAffinityHitRate() {
+		int hits = 0, resumes = 0;
+		for ( CPU cpu : this.cpus ) {
+			hits += cpu.getAffinityHits();
+			resumes += cpu.getResumes();
+		}
+		return resumes == 0 ? 0 : (double) hits / resumes;
+	}
+
+	/**
+	 * Retrieves the amount of resumed processes whose cache didn't have to be restored. See {@link
+	 * CPU#getWarmStarts()}.
+	 *
+	 * @return The amount of warm starts on every CPU.
+	 */
+	public int getWarmStarts() {
+		int warmStarts = 0;
+		for ( CPU cpu : this.cpus ) {
+			warmStarts += cpu.getWarmStarts();
+		}
+		return warmStarts;
+	}
+
+	/**
+	 * Retrieves the amount of cache words that didn't have to be restored thanks to warm starts. See {@link
+	 * CPU#getCacheWordsSaved()}.
+	 *
+	 * @return The amount of cache words saved on every CPU.
+	 */
+	public long getCacheWordsSaved() {
+		long saved = 0;
+		for ( CPU cpu : this.cpus ) {
+			saved += cpu.getCacheWordsSaved();
+		}
+		return saved;
+	}
+
+	/**
+	 * Sets the amount of instructions every CPU executes between checks of its interrupt vector. See {@link
+	 * CPU#setBatchSize(int)}.
+	 *
+	 * @param batchSize The amount of instructions to execute in each batch.
+	 */
+	public void setBatchSize( int batchSize ) {
+		for ( CPU cpu : this.cpus ) {
+			cpu.setBatchSize( batchSize );
+		}
+	}
+
+	/**
+	 * Sets whether the Scheduler admits as many jobs as fit in RAM on each pass, instead of a single job. See {@link
+	 * Scheduler#setBatchAdmission(boolean)}.
+	 *
+	 * @param batchAdmission {@code true} to fill RAM on every pass of the Scheduler.
+	 */
+	public void setBatchAdmission( boolean batchAdmission ) {
+		this.scheduler.setBatchAdmission( batchAdmission );
+	}
+
+	/**
+	 * Sets how the Scheduler chooses the next job to load into RAM. See {@link AdmissionPolicy}.
+	 *
+	 * @param admissionPolicy The new admission policy.
+	 */
+	public void setAdmissionPolicy( @NotNull AdmissionPolicy admissionPolicy ) {
+		this.scheduler.setAdmissionPolicy( admissionPolicy );
+	}
+
+	/**
+	 * Sets how many times the first job in the Job Queue can be passed over by the {@link AdmissionPolicy} before the
+	 * Scheduler waits for it to fit. See {@link Scheduler#setFairnessBound(int)}.
+	 *
+	 * @param fairnessBound The amount of times the first job can be passed over.
+	 */
+	public void setFairnessBound( int fairnessBound ) {
+		this.scheduler.setFairnessBound( fairnessBound );
+	}
+
+	/**
+	 * Retrieves the average fraction of RAM that was mapped to processes during the last run, sampled on every pass
+	 * of the Scheduler.
+	 *
+	 * @return The average RAM utilization, between {@code 0} and {@code 1}.
+	 */
+	public double getRAMUtilization() {
+		return this.ramUtilization;
+	}
+
+	/**
+	 * Sets the amount of threads the Scheduler uses to copy admitted jobs into RAM. The threads are stopped at the end
+	 * of {@link Driver#run()}. See {@link Scheduler#setLoaderThreads(int)}.
+	 *
+	 * @param threads The amount of loader threads, or {@code 1} to load jobs on the Driver's thread.
+	 */
+	public void setLoaderThreads( int threads ) {
+		this.scheduler.setLoaderThreads( threads );
+	}
+
+	/**
+	 * Retrieves the time it took for every CPU to be running a process at once, measured from the start of the last
+	 * run.
+	 *
+	 * @return The time to full utilization in nanoseconds, or {@code -1} if the CPUs were never all busy at once.
+	 */
+	public long getRampUpTime() {
+		return this.rampUpTime;
+	}
+
+	/**
+	 * Retrieves the average time between the Dispatcher handing a process to a CPU and the CPU executing its first
+	 * instruction during the last run. See {@link CPU#getHandoffLatency()}.
+	 *
+	 * @return The average handoff latency in nanoseconds, or {@code 0} if nothing was dispatched.
+	 */
+	public long getAverageHandoffLatency() {
+		long latency = 0;
+		int handoffs = 0;
+		for ( CPU cpu : this.cpus ) {
+			latency += cpu.getHandoffLatency();
+			handoffs += cpu.getHandoffs();
+		}
+		return handoffs == 0 ? 0 : latency / handoffs;
+	}
+
+	/**
+	 * Retrieves the amount of times an interrupt has been handled by the CPUs. Raises of the same interrupt on a CPU
+	 * that happened before it was handled are counted once.
+	 *
+	 * @param interrupt The interrupt.
+	 * @return The amount of times the interrupt was handled.
+	 */
+	public long getInterrupts( @NotNull Interrupt interrupt ) {
+		long interrupts = 0;
+		for ( CPU cpu : this.cpus ) {
+			interrupts += cpu.getInterruptController().getLatencies( interrupt ).getCount();
+		}
+		return interrupts;
+	}
+
+	/**
+	 * Retrieves the average time from when an interrupt was raised on a CPU until the CPU handled it, across every
+	 * CPU. See {@link yeezus.cpu.InterruptController}.
+	 *
+	 * @param interrupt The interrupt.
+	 * @return The average interrupt latency in nanoseconds, or {@code 0} if the interrupt was never handled.
+	 */
+	public long getAverageInterruptLatency( @NotNull Interrupt interrupt ) {
+		double latency = 0;
+		long interrupts = 0;
+		for ( CPU cpu : this.cpus ) {
+			Histogram latencies = cpu.getInterruptController().getLatencies( interrupt );
+			latency += latencies.getMean() * latencies.getCount();
+			interrupts += latencies.getCount();
+		}
+		return interrupts == 0 ? 0 : (long) ( latency / interrupts );
+	}
+
+	/**
+	 * Retrieves the amount of processes that were terminated because they accessed an address outside of their
+	 * memory.
+	 *
+	 * @return The amount of page faults.
+	 */
+	public synchronized int getPageFaults() {
+		return this.pageFaults;
+	}
+
+	/**
+	 * Retrieves the CPU time used by the Driver's own thread during the last run, to schedule and dispatch processes.
+	 * The Driver waits for the CPUs to report that a process stopped running instead of polling them, so this should
+	 * be a small fraction of the run.
+	 *
+	 * @return The CPU time of the Driver's thread in nanoseconds, or {@code -1} if the JVM can't measure it.
+	 */
+	public long getControlTime() {
+		return this.controlTime;
+	}
+
+	/**
+	 * Retrieves the CPU time of the host used by the last run: by the CPUs' threads, including the time they spent
+	 * waiting for work, and by the Driver's own thread. Comparing this across idle strategies, next to {@link
+	 * Driver#getAverageHandoffLatency()}, shows how much host CPU time each strategy burns for its wake-up latency.
+	 * See {@link Driver#setIdleStrategy(IdleStrategy, IdleStrategy)}.
+	 *
+	 * @return The host CPU time in nanoseconds, or {@code -1} if the JVM can't measure it.
+	 */
+	public long getHostCPUTime() {
+		return this.controlTime < 0 ? -1 : this.controlTime + this.cpuHostTime;
+	}
+
+	/**
+	 * Sets how both the CPUs' threads and the Driver's thread wait while they have nothing to do. See {@link
+	 * Driver#setIdleStrategy(IdleStrategy, IdleStrategy)}.
+	 *
+	 * @param idleStrategy The idle strategy of every thread.
+	 */
+	public void setIdleStrategy( @NotNull IdleStrategy idleStrategy ) {
+		setIdleStrategy( idleStrategy, idleStrategy );
+	}
+
+	/**
+	 * <p>Sets how the CPUs' threads wait for a process, and how the Driver's thread waits for a process to stop
+	 * running. By default, both block until they are woken up, which uses no host CPU time while waiting but adds the
+	 * host's wake-up latency to every dispatch. The other strategies keep checking for work, and trade host CPU time for
+	 * a shorter latency. See {@link IdleStrategy}.</p><p>The CPUs' strategy doesn't apply to CPUs that run on carrier
+	 * threads, and neither applies to a simulation. This should only be done before the system starts running.</p>
+	 *
+	 * @param cpuIdleStrategy     The idle strategy of the CPUs' threads.
+	 * @param controlIdleStrategy The idle strategy of the Driver's thread.
+	 */
+	public void setIdleStrategy( @NotNull IdleStrategy cpuIdleStrategy, @NotNull IdleStrategy controlIdleStrategy ) {
+		for ( CPU cpu : this.cpus ) {
+			cpu.setIdleStrategy( cpuIdleStrategy );
+		}
+		this.controlIdleStrategy = controlIdleStrategy;
+	}
+
+	/**
+	 * Sets the amount of carrier threads that the CPUs share. By default, every CPU runs on a thread of its own, which
+	 * limits how many CPUs can be simulated. With a pool of carrier threads, a CPU only holds a thread while it has work,
+	 * so thousands of CPUs can be simulated on an ordinary host. See {@link CPU#runOn(java.util.concurrent.Executor)}.
+	 * This should only be done before the system starts running.
+	 *
+	 * @param carrierThreads The amount of carrier threads, or {@code 0} to give every CPU a thread of its own.
+	 */
+	public void setCarrierThreads( int carrierThreads ) {
+		if ( carrierThreads < 0 ) {
+			throw new IllegalArgumentException( "The amount of carrier threads cannot be negative." );
+		}
+		this.carrierThreads = carrierThreads;
+	}
+
+	/**
+	 * Sets the amount of channels of the DMA engine, which every CPU shares. With a DMA engine, a process that performs
+	 * I/O waits for its transfer while its CPU runs other processes. See {@link DMAEngine}. The simulation always
+	 * performs I/O on the CPUs. This should only be done before the system starts running.
+	 *
+	 * @param dmaThreads The amount of DMA channels, each with a thread of its own, or {@code 0} to perform I/O on the
+	 *                   CPUs.
+	 */
+	public void setDMAThreads( int dmaThreads ) {
+		if ( dmaThreads < 0 ) {
+			throw new IllegalArgumentException( "The amount of DMA threads cannot be negative." );
+		}
+		this.dmaThreads = dmaThreads;
+	}
+
+	/**
+	 * Sets the order in which the DMA channels take the queued transfers. The transfers are only queued, in a single
+	 * queue that every CPU shares, when there is a DMA engine, so this only has an effect along with {@link
+	 * Driver#setDMAThreads(int)} above {@code 0}. Without one, each CPU performs its own I/O as soon as it is executed.
+	 * This should only be done before the system starts running.
+	 *
+	 * @param dmaQueuePolicy The order of the DMA engine's queue.
+	 */
+	public void setDMAQueuePolicy( @NotNull DMAQueuePolicy dmaQueuePolicy ) {
+		this.dmaQueuePolicy = dmaQueuePolicy;
+	}
+
+	/**
+	 * Sets the modelled latency of every DMA transfer. See {@link DMAEngine#setLatency(long)}. This should only be done
+	 * before the system starts running.
+	 *
+	 * @param dmaLatency The time in nanoseconds that every transfer holds its channel for.
+	 */
+	public void setDMALatency( long dmaLatency ) {
+		if ( dmaLatency < 0 ) {
+			throw new IllegalArgumentException( "The DMA latency cannot be negative." );
+		}
+		this.dmaLatency = dmaLatency;
+	}
+
+	/**
+	 * Sets the modelled bandwidth of each DMA channel. See {@link DMAEngine#setBandwidth(long)}. This should only be
+	 * done before the system starts running.
+	 *
+	 * @param dmaBandwidth The amount of words a channel can move per second, or {@code 0} for unlimited bandwidth.
+	 */
+	public void setDMABandwidth( long dmaBandwidth ) {
+		if ( dmaBandwidth < 0 ) {
+			throw new IllegalArgumentException( "The DMA bandwidth cannot be negative." );
+		}
+		this.dmaBandwidth = dmaBandwidth;
+	}
+
+	/**
+	 * Retrieves the histogram of the DMA engine's queue depth during the last run. See {@link
+	 * DMAEngine#getQueueDepths()}.
+	 *
+	 * @return The {@link Histogram} of queue depths, or {@code null} if the run didn't use a DMA engine.
+	 */
+	public Histogram getDMAQueueDepths() {
+		return this.dmaEngine == null ? null : this.dmaEngine.getQueueDepths();
+	}
+
+	/**
+	 * Retrieves the histogram of the service times of the DMA transfers during the last run. See {@link
+	 * DMAEngine#getServiceTimes()}.
+	 *
+	 * @return The {@link Histogram} of service times in nanoseconds, or {@code null} if the run didn't use a DMA
+	 * engine.
+	 */
+	public Histogram getDMAServiceTimes() {
+		return this.dmaEngine == null ? null : this.dmaEngine.getServiceTimes();
+	}
+
+	/**
+	 * Retrieves the fraction of the last run's time that the CPUs spent executing processes, averaged across the CPUs.
+	 *
+	 * @return The CPU utilization, between {@code 0} and {@code 1}.
+	 */
+	public double getCPUUtilization() {
+		long executeTime = 0;
+		for ( long cpuTime : this.executeTimes ) {
+			executeTime += cpuTime;
+		}
+		return this.runTime == 0 ? 0 : Math.min( 1, (double) executeTime / this.cpus.length / this.runTime );
+	}
+
+	/**
+	 * <p>Makes the amount of CPUs that run processes elastic. Each run starts with the minimum amount of active CPUs,
+	 * and CPUs are started while processes wait in the Ready Queue and the active CPUs are busy, up to the maximum, or
+	 * parked again once the active CPUs are mostly idle. See {@link ElasticPool}. The CPUs beyond the maximum are never
+	 * used.</p><p>The CPU-seconds of a run only count the time that CPUs were active, so comparing them to the
+	 * throughput across bounds shows how many CPUs a workload can use efficiently. See {@link
+	 * Driver#getCPUSeconds()}. This should only be done before the system starts running.</p>
+	 *
+	 * @param min The least amount of active CPUs.
+	 * @param max The most amount of active CPUs.
+	 * @throws IllegalStateException    Thrown if work stealing is enabled, since the processes are then spread over
+	 *                                  the queues of every CPU.
+	 * @throws IllegalArgumentException Thrown if the bounds are out of order, or exceed the amount of CPUs.
+	 */
+	public void setElasticCPUs( int min, int max ) {
+		setElasticCPUs( min, max, ElasticPool.DEFAULT_RESIZE_INTERVAL );
+	}
+
+	/**
+	 * Makes the amount of CPUs that run processes elastic, with a custom interval between resizing decisions. See
+	 * {@link Driver#setElasticCPUs(int, int)}. A simulation measures the interval in cycles, and usually needs a much
+	 * shorter one than the default.
+	 *
+	 * @param min      The least amount of active CPUs.
+	 * @param max      The most amount of active CPUs.
+	 * @param interval The time in nanoseconds between two resizing decisions.
+	 * @throws IllegalStateException    Thrown if work stealing is enabled.
+	 * @throws IllegalArgumentException Thrown if the bounds are out of order, or exceed the amount of CPUs, or if the
+	 *                                  interval isn't positive.
+	 */
+	public void setElasticCPUs( int min, int max, long interval ) {
+		if ( this.cpus[0].isWorkStealing() ) {
+			throw new IllegalStateException( "Elastic CPUs can't be used with work stealing." );
+		}
+		this.elasticPool = new ElasticPool( this.cpus, min, max, interval );
+	}
+
+	/**
+	 * Retrieves the most CPUs that were active at the same time during the last run. See {@link
+	 * Driver#setElasticCPUs(int, int)}.
+	 *
+	 * @return The peak amount of active CPUs, which is the amount of CPUs if they aren't elastic.
+	 */
+	public int getPeakCPUs() {
+		return this.elasticPool == null ? this.cpus.length : this.elasticPool.getPeak();
+	}
+
+	/**
+	 * Retrieves the CPU time that the last run consumed, counting every active CPU for as long as it was active,
+	 * whether it was running a process or not. Without elastic CPUs, every CPU is active for the whole run. In a
+	 * simulation, each cycle counts as a nanosecond.
+	 *
+	 * @return The consumed CPU-seconds.
+	 */
+	public double getCPUSeconds() {
+		return this.cpuTime / 1000000000.0;
+	}
+
+	/**
+	 * Retrieves the rate at which the last run completed processes. In a simulation, each cycle counts as a
+	 * nanosecond.
+	 *
+	 * @return The throughput in processes per second, or {@code 0} if the run took no time.
+	 */
+	public double getThroughput() {
+		return this.runTime == 0 ? 0 : this.completed * 1000000000.0 / this.runTime;
+	}
+
+	/**
+	 * Retrieves how many processes the last run completed for each CPU-second it consumed. See {@link
+	 * Driver#getCPUSeconds()}.
+	 *
+	 * @return The processes completed per CPU-second, or {@code 0} if the run consumed no CPU time.
+	 */
+	public double getProcessesPerCPUSecond() {
+		return this.cpuTime == 0 ? 0 : this.completed * 1000000000.0 / this.cpuTime;
+	}
+
+	/**
+	 * Retrieves the fraction of the time spent on I/O during the last run that overlapped with CPUs executing
+	 * processes. See {@link DMAEngine#getOverlap()}.
+	 *
+	 * @return The I/O overlap, between {@code 0} and {@code 1}, or {@code 0} if the run didn't use a DMA engine.
+	 */
+	public double getIOOverlap() {
+		return this.dmaEngine == null ? 0 : this.dmaEngine.getOverlap();
+	}
+
+	/**
+	 * Retrieves the amount of bursts that the processes' I/O has transferred between their {@link
+	 * yeezus.memory.TransferBuffer}s and the RAM.
+	 *
+	 * @return The amount of memory transfers.
+	 */
+	public long getMemoryTransfers() {
+		long transfers = 0;
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			transfers += pcb.getTransferBuffer().getTransfers();
+		}
+		return transfers;
+	}
+
+	/**
+	 * Retrieves the average amount of words moved by each of the processes' memory transfers. See {@link
+	 * Driver#getMemoryTransfers()}.
+	 *
+	 * @return The average burst length in words, or {@code 0} if there were no transfers.
+	 */
+	public double getAverageBurstLength() {
+		long transfers = 0, words = 0;
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			transfers += pcb.getTransferBuffer().getTransfers();
+			words += pcb.getTransferBuffer().getWords();
+		}
+		return transfers == 0 ? 0 : (double) words / transfers;
+	}
+
+	/**
+	 * Sets the trace level of every CPU in this system. See {@link CPU#setTraceLevel(TraceLevel)}.
+	 *
+	 * @param traceLevel The new trace level for the CPUs.
+	 */
+	public void setTraceLevel( @NotNull TraceLevel traceLevel ) {
+		for ( CPU cpu : this.cpus ) {
+			cpu.setTraceLevel( traceLevel );
+		}
+	}
+
+	/**
+	 * Sets the trace level for a single process, on whichever CPU it runs. See {@link CPU#setTraceLevel(int,
+	 * TraceLevel)}.
+	 *
+	 * @param pid        The PID of the process.
+	 * @param traceLevel The trace level for the process, or {@code null} to use the level of the CPUs again.
+	 */
+	public void setTraceLevel( int pid, TraceLevel traceLevel ) {
+		for ( CPU cpu : this.cpus ) {
+			cpu.setTraceLevel( pid, traceLevel );
+		}
+	}
+
+	/**
+	 * Sets how often the CPUs record instructions under the {@link TraceLevel#SAMPLED} trace level. See {@link
+	 * CPU#setSampling(int, boolean)}.
+	 *
+	 * @param interval The amount of instructions executed for every recorded instruction.
+	 * @param random   {@code true} to record instructions at random, on average once per interval.
+	 */
+	public void setSampling( int interval, boolean random ) {
+		for ( CPU cpu : this.cpus ) {
+			cpu.setSampling( interval, random );
+		}
+	}
+
 	/**
 	 * Executes the main loop of the driver. This loop will run until all processes have been completed, and the process
 	 * data has been written back to the disk.
@@ -121,86 +926,314 @@ public class Driver {
 	 * @throws InterruptedException See {@link InterruptedException}.
 	 */
 	public void run() throws InterruptedException {
-		// Start threads
-		for ( int i = 0; i < this.cpus.length; i++ ) {
-			this.threads[i].start();
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		long startControlTime = threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : -1;
+		beginRun();
+		if ( this.dmaThreads > 0 ) {
+			this.dmaEngine = new DMAEngine( this.mmu, this.dmaThreads, this.dmaQueuePolicy, this::transferDone );
+			this.dmaEngine.setLatency( this.dmaLatency );
+			this.dmaEngine.setBandwidth( this.dmaBandwidth );
+			for ( CPU cpu : this.cpus ) {
+				cpu.setDMAEngine( this.dmaEngine );
+			}
+			this.dmaEngine.start();
 		}
 
-		// Wait for all jobs to be completed. Could probably make this more efficient
-		boolean jobsDone = false;
-		while ( !jobsDone ) { // Loop through Scheduler/Dispatcher
-			this.scheduler.run();
-			this.dispatcher.run();
-			// TODO Handle interrupts
-
-			jobsDone = true;
-			for ( PCB pcb : TaskManager.INSTANCE ) {
-				if ( pcb.getStatus() != PCB.Status.TERMINATED ) {
-					jobsDone = false;
-				}
+		// Start threads
+		ExecutorService carriers = null;
+		if ( this.carrierThreads > 0 ) {
+			carriers = Executors.newFixedThreadPool( this.carrierThreads, runnable -> {
+				Thread carrier = new Thread( runnable );
+				carrier.setDaemon( true );
+				carrier.setUncaughtExceptionHandler( ( t, e ) -> {
+					e.printStackTrace();
+					this.cpuFailed = true;
+					this.events.release();
+				} );
+				return carrier;
+			} );
+			for ( CPU cpu : this.cpus ) {
+				cpu.runOn( carriers );
 			}
-
-			boolean allDead = true;
-			for ( Thread thread : this.threads ) {
-				if ( thread.isAlive() ) {
-					allDead = false;
-					break;
-				}
+		} else {
+			for ( int i = 0; i < this.cpus.length; i++ ) {
+				this.threads[i].start();
 			}
-			if ( allDead ) {
+		}
+
+		// Wait for all jobs to be completed
+		while ( this.remaining.getCount() > 0 ) { // Loop through Scheduler/Dispatcher
+			boolean admitted = schedule();
+			if ( this.cpuFailed ) {
 				System.exit( 1 );
 			}
+			if ( admitted ) {
+				// More jobs may fit in RAM, so keep admitting them before waiting
+				continue;
+			}
+			// Nothing can change until a process stops running and frees its CPU, and RAM if it terminated, or until a
+			// process has waited long enough for its CPU
+			long timeout = this.dispatcher.hasDeferred() ? this.affinityWait : -1;
+			if ( this.strideQueue != null ) {
+				long sample = this.lastShareSample + SHARE_SAMPLE_INTERVAL - Clock.INSTANCE.nanoTime();
+				timeout = timeout < 0 ? sample : Math.min( timeout, sample );
+			}
+			if ( this.loadBalancer != null ) {
+				long pass = this.loadBalancer.untilNextPass( Clock.INSTANCE.nanoTime() );
+				timeout = timeout < 0 ? pass : Math.min( timeout, pass );
+			}
+			if ( this.elasticPool != null ) {
+				long resize = this.elasticPool.untilNextResize( Clock.INSTANCE.nanoTime() );
+				timeout = timeout < 0 ? resize : Math.min( timeout, resize );
+			}
+			if ( !this.controlIdleStrategy.isBlocking() ) {
+				// Poll for an event, waiting between checks as the idle strategy says
+				long deadline = Clock.INSTANCE.nanoTime() + timeout;
+				for ( int attempts = 0; !this.events.tryAcquire() && ( timeout < 0
+						|| Clock.INSTANCE.nanoTime() < deadline ); attempts++ ) {
+					this.controlIdleStrategy.idle( attempts );
+				}
+			} else if ( timeout < 0 ) {
+				this.events.acquire();
+			} else {
+				this.events.tryAcquire( timeout, TimeUnit.NANOSECONDS );
+			}
+			// A single pass handles every event that has happened since
+			this.events.drainPermits();
 		}
 
 		for ( CPU cpu : this.cpus ) {
 			cpu.signalShutdown();
-			synchronized ( cpu ) {
-				cpu.notify();
+		}
+		// Every CPU has been woken up, and stops as soon as it sees the signal
+		for ( CPU cpu : this.cpus ) {
+			cpu.awaitShutdown();
+		}
+		if ( carriers != null ) {
+			carriers.shutdown();
+		}
+		if ( this.dmaEngine != null ) {
+			this.dmaEngine.shutdown();
+			for ( CPU cpu : this.cpus ) {
+				cpu.setDMAEngine( null );
 			}
 		}
+		endRun();
+		this.controlTime = startControlTime < 0 ? -1 : threadBean.getCurrentThreadCpuTime() - startControlTime;
+	}
 
-		// Wait for the threads
-		boolean[] joined = new boolean[this.threads.length];
-		for ( int i = 0; i < joined.length; i++ ) {
-			joined[i] = false;
+	/**
+	 * <p>Runs every process to completion like {@link Driver#run()}, but as a discrete-event simulation on the calling
+	 * thread, instead of on the CPUs' threads.</p><p>The {@link Clock} is switched to logical time for the length of
+	 * the simulation. Each busy CPU executes its process one batch of instructions at a time, and each batch takes as
+	 * many cycles as the {@link CostTable} gives its instructions. The simulation always advances to the batch that ends
+	 * first, and the Scheduler and Dispatcher react to it at that time, just as they react to the CPUs in a threaded
+	 * run. Since nothing depends on the host's timing, every measurement of a simulated run, such as wait times, idle
+	 * times and dispatch latency, is reproduced exactly by the next one, in cycles instead of nanoseconds.</p><p>The
+	 * settings that only apply to threads, such as {@link Driver#setCarrierThreads(int)}, are ignored, and {@link
+	 * Driver#setTimeQuantumNanos(long)} is measured in cycles.</p>
+	 *
+	 * @param costs The cost of each type of instruction.
+	 * @throws IllegalStateException Thrown if work stealing is enabled, since the CPUs don't have threads of their own
+	 *                               to steal with, or if the processes that are left can never be loaded into RAM.
+	 */
+	public void simulate( @NotNull CostTable costs ) {
+		if ( this.cpus[0].isWorkStealing() ) {
+			throw new IllegalStateException( "Work stealing can't be simulated." );
 		}
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		long startControlTime = threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : -1;
+		Clock clock = Clock.INSTANCE;
+		clock.setLogical( true );
+		try {
+			for ( PCB pcb : TaskManager.INSTANCE ) {
+				pcb.resetTimes();
+			}
+			// The arrival times of the jobs changed, and with them their deadlines and aged priorities
+			taskManager.setJobOrder( this.schedulingPolicy.getComparator() );
+			if ( taskManager.getReadyQueue() instanceof MultilevelFeedbackQueue ) {
+				( (MultilevelFeedbackQueue) taskManager.getReadyQueue() ).resetBoostTimer();
+			}
+			beginRun();
 
-		boolean allJoined;
-
-		do {
-			for ( int i = 0; i < this.cpus.length; i++ ) {
-				synchronized ( this.cpus[i] ) {
-					this.cpus[i].notify();
+			// The time at which the batch running on each CPU ends, or -1 if it isn't running one
+			long[] batchEnds = new long[this.cpus.length];
+			Arrays.fill( batchEnds, -1 );
+			while ( this.remaining.getCount() > 0 ) {
+				while ( schedule() ) {
+					// Keep admitting jobs while they fit in RAM
 				}
-				this.threads[i].join( 5 );
-				if ( !this.threads[i].isAlive() ) {
-					joined[i] = true;
+				int next = -1;
+				for ( int i = 0; i < this.cpus.length; i++ ) {
+					if ( batchEnds[i] < 0 ) {
+						long cycles = this.cpus[i].startBatch( costs );
+						batchEnds[i] = cycles < 0 ? -1 : clock.nanoTime() + cycles;
+					}
+					if ( batchEnds[i] >= 0 && ( next < 0 || batchEnds[i] < batchEnds[next] ) ) {
+						next = i;
+					}
+				}
+				if ( next < 0 ) {
+					throw new IllegalStateException( "The remaining processes can never be loaded into RAM." );
+				}
+				long now = batchEnds[next];
+				clock.advanceTo( now );
+				for ( int i = 0; i < this.cpus.length; i++ ) {
+					if ( batchEnds[i] == now ) {
+						batchEnds[i] = -1;
+						this.cpus[i].finishBatch();
+					}
 				}
 			}
+			this.events.drainPermits();
+			endRun();
+			this.controlTime = startControlTime < 0 ? -1 : threadBean.getCurrentThreadCpuTime() - startControlTime;
+		} finally {
+			clock.setLogical( false );
+		}
+	}
 
-			allJoined = true;
+	/**
+	 * Simulates the system with the default {@link CostTable}. See {@link Driver#simulate(CostTable)}.
+	 */
+	public void simulate() {
+		simulate( new CostTable() );
+	}
 
-			for ( boolean aJoined : joined ) {
-				if ( !aJoined ) {
-					allJoined = false;
-					break;
-				}
+	// Resets the measurements of the last run
+	private void beginRun() {
+		int unfinished = 0;
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			if ( pcb.getStatus() != PCB.Status.TERMINATED ) {
+				unfinished++;
 			}
-		} while ( !allJoined );
+		}
+		this.remaining = new CountDownLatch( unfinished );
+		this.terminated = ConcurrentHashMap.newKeySet();
+		this.events.drainPermits();
+		this.runStart = Clock.INSTANCE.nanoTime();
+		this.lastShareSample = this.runStart;
+		this.rampUpTime = -1;
+		this.usedSamples = 0;
+		this.samples = 0;
+		this.shareHistory = new LinkedHashMap<>();
+		this.dmaEngine = null;
+		if ( this.loadBalancer != null ) {
+			this.loadBalancer.start( this.runStart );
+		}
+		if ( this.elasticPool != null ) {
+			this.elasticPool.start( this.runStart );
+		}
+		this.dispatcher.setActiveCPUs( this.elasticPool == null ? this.cpus.length : this.elasticPool.getActive() );
+	}
 
+	// A single pass of the Scheduler and Dispatcher. Returns true if a job was admitted, in which case more may fit
+	private boolean schedule() {
+		int waiting = taskManager.getJobQueue().size();
+		this.scheduler.run();
+		this.usedSamples += this.ramSize - this.mmu.getFreeSpace();
+		this.samples++;
+		// Newly admitted processes are dispatched on the same pass
+		this.dispatcher.run();
+		if ( this.elasticPool != null && this.elasticPool
+				.resize( Clock.INSTANCE.nanoTime(), taskManager.getReadyQueue().size() ) ) {
+			// Started CPUs take the waiting processes right away
+			this.dispatcher.setActiveCPUs( this.elasticPool.getActive() );
+			this.dispatcher.run();
+		}
+		if ( this.rampUpTime < 0 && allBusy() ) {
+			this.rampUpTime = Clock.INSTANCE.nanoTime() - this.runStart;
+		}
+		if ( this.strideQueue != null && Clock.INSTANCE.nanoTime() - this.lastShareSample >= SHARE_SAMPLE_INTERVAL ) {
+			this.lastShareSample = Clock.INSTANCE.nanoTime();
+			this.shareHistory.put( this.lastShareSample - this.runStart, this.strideQueue.getShares() );
+		}
+		if ( this.loadBalancer != null ) {
+			this.loadBalancer.balance( Clock.INSTANCE.nanoTime() );
+		}
+		return taskManager.getJobQueue().size() < waiting;
+	}
+
+	// Writes the last processes back to the disk and collects the measurements of the run
+	private void endRun() {
+		this.runTime = Clock.INSTANCE.nanoTime() - this.runStart;
+		this.cpuTime = this.elasticPool == null ? this.cpus.length * this.runTime
+				: this.elasticPool.getActiveTime( this.runStart + this.runTime );
+		this.completed = this.terminated.size();
 		// Ensure that memory is written back to the source
 		this.executeTimes = new long[this.cpus.length];
 		this.idleTimes = new long[this.cpus.length];
-		for ( int i = 0; i < TaskManager.INSTANCE.size(); i++ ) {
-			// Wasted iterations, but ensures everything is written back
-			this.scheduler.run();
+		this.contextSwitches = new int[this.cpus.length];
+		this.contextSwitchTimes = new long[this.cpus.length];
+		// Every terminated process has been handed to the Scheduler, so a single iteration writes them all back
+		this.scheduler.run();
+		this.scheduler.shutdown();
+		if ( this.strideQueue != null ) {
+			// Make sure that the last processes have been charged
+			this.dispatcher.run();
+			this.shareHistory.put( Clock.INSTANCE.nanoTime() - this.runStart, this.strideQueue.getShares() );
 		}
+		this.ramUtilization = (double) this.usedSamples / this.samples / this.ramSize;
 
 		// Determine idle/execute times
 		for ( int i = 0; i < this.cpus.length; i++ ) {
 			idleTimes[i] = this.cpus[i].getIdleTime();
 			executeTimes[i] = this.cpus[i].getExecuteTime();
+			this.contextSwitches[i] = this.cpus[i].getContextSwitches();
+			this.contextSwitchTimes[i] = this.cpus[i].getContextSwitchTime();
+		}
+		this.cpuHostTime = 0;
+		for ( CPU cpu : this.cpus ) {
+			this.cpuHostTime += cpu.getHostTime();
+		}
+	}
+
+	// Called on a DMA channel's thread when a transfer is done, to interrupt the CPU the process last ran on
+	private void transferDone( PCB pcb ) {
+		Interrupt interrupt = pcb.getStatus() == PCB.Status.TERMINATED ? Interrupt.PAGE_FAULT : Interrupt.IO_COMPLETION;
+		int cpuid = pcb.getCPUID();
+		for ( CPU cpu : this.cpus ) {
+			if ( cpu.getCPUID() == cpuid ) {
+				cpu.getInterruptController().raise( interrupt, pcb );
+				return;
+			}
+		}
+		this.cpus[0].getInterruptController().raise( interrupt, pcb );
+	}
+
+	// Handles an I/O completion interrupt on a CPU's thread
+	private void ioCompleted( PCB pcb ) {
+		this.dispatcher.ioCompleted( pcb );
+		this.events.release();
+	}
+
+	// Handles a page fault interrupt on a CPU's thread. The process has been, or is about to be, terminated
+	private void pageFault( PCB pcb ) {
+		synchronized ( this ) {
+			this.pageFaults++;
+		}
+		processStopped( pcb );
+	}
+
+	// Called on a CPU's thread whenever a process stops running
+	private void processStopped( PCB pcb ) {
+		// A process that blocked on I/O may already have been run to completion by another CPU when the CPU it blocked
+		// on reports it, so each process is only counted once
+		if ( pcb.getStatus() == PCB.Status.TERMINATED && this.terminated.add( pcb ) ) {
+			this.scheduler.processTerminated( pcb );
+			this.remaining.countDown();
+		}
+		this.events.release();
+	}
+
+	private boolean allBusy() {
+		for ( CPU cpu : this.cpus ) {
+			PCB pcb = cpu.getProcess();
+			if ( pcb == null || pcb.getStatus() != PCB.Status.RUNNING ) {
+				return false;
+			}
 		}
+		return true;
 	}
 
 	public String getProcPerCPU() {
@@ -0,0 +1,176 @@
+package yeezus.driver;
+
+import com.sun.istack.internal.NotNull;
+import yeezus.cpu.CPU;
+import yeezus.pcb.PCB;
+
+/**
+ * <p>Sizes the set of active CPUs to the load, between a minimum and a maximum. See {@link
+ * Driver#setElasticCPUs(int, int)}.</p><p>The active CPUs are always the first ones, and only they are handed
+ * processes by the {@link Dispatcher}. The other CPUs are parked: their threads stay blocked, and their carrier threads
+ * are given back if they run on a pool, so they don't use any of the host's CPU time.</p><p>Every interval, the pool
+ * looks at the depth of the Ready Queue and at the utilization of the active CPUs since the last interval. If processes
+ * are waiting and the active CPUs were busy, enough CPUs are started to run every waiting process. If no process is
+ * waiting and the active CPUs were mostly idle, the last active CPU is parked once it has no process. CPUs are parked
+ * one at a time, and the two utilization thresholds are far apart, so the pool doesn't oscillate.</p><p>The pool also
+ * accounts the CPU-seconds of the run, which is the time each CPU spent active, whether it ran a process or not.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class ElasticPool {
+
+	/**
+	 * The default time in nanoseconds between two resizing decisions.
+	 */
+	public static final long DEFAULT_RESIZE_INTERVAL = 1000000;
+
+	/**
+	 * The utilization of the active CPUs at or above which CPUs are started when processes are waiting.
+	 */
+	public static final double GROW_UTILIZATION = 0.75;
+
+	/**
+	 * The utilization of the active CPUs below which a CPU is parked when no process is waiting.
+	 */
+	public static final double SHRINK_UTILIZATION = 0.25;
+
+	private final CPU[] cpus;
+	private final int min, max;
+	private final long interval;
+	private final long[] lastExecuteTimes;
+	private int active, peak;
+	private long lastResize, lastChange, activeTime;
+
+	/**
+	 * Constructs a new elastic pool, which starts with the minimum amount of active CPUs.
+	 *
+	 * @param cpus     Every CPU that can be activated.
+	 * @param min      The least amount of active CPUs.
+	 * @param max      The most amount of active CPUs.
+	 * @param interval The time in nanoseconds between two resizing decisions.
+	 * @throws IllegalArgumentException Thrown if the bounds are out of order or outside of the CPUs, or if the interval
+	 *                                  isn't positive.
+	 */
+	ElasticPool( @NotNull CPU[] cpus, int min, int max, long interval ) {
+		if ( min < 1 || max < min || max > cpus.length ) {
+			throw new IllegalArgumentException(
+					"The elastic CPU bounds must satisfy 1 <= min <= max <= " + cpus.length + "." );
+		}
+		if ( interval <= 0 ) {
+			throw new IllegalArgumentException( "The resizing interval must be positive." );
+		}
+		this.interval = interval;
+		this.cpus = cpus;
+		this.min = min;
+		this.max = max;
+		this.lastExecuteTimes = new long[cpus.length];
+		this.active = min;
+	}
+
+	/**
+	 * Resets the pool to the minimum amount of active CPUs, and starts accounting CPU-seconds from now.
+	 *
+	 * @param now The current time in nanoseconds.
+	 */
+	void start( long now ) {
+		this.active = this.min;
+		this.peak = this.min;
+		this.lastResize = now;
+		this.lastChange = now;
+		this.activeTime = 0;
+		for ( int i = 0; i < this.cpus.length; i++ ) {
+			this.lastExecuteTimes[i] = this.cpus[i].getExecuteTime();
+		}
+	}
+
+	/**
+	 * Retrieves the time until the next resizing decision is due.
+	 *
+	 * @param now The current time in nanoseconds.
+	 * @return The time in nanoseconds until the next decision, or {@code 0} if it is already due.
+	 */
+	long untilNextResize( long now ) {
+		return Math.max( 0, this.lastResize + this.interval - now );
+	}
+
+	/**
+	 * Starts or parks CPUs if a decision is due.
+	 *
+	 * @param now   The current time in nanoseconds.
+	 * @param depth The amount of processes waiting in the Ready Queue.
+	 * @return {@code true} if the amount of active CPUs changed.
+	 */
+	boolean resize( long now, int depth ) {
+		if ( untilNextResize( now ) > 0 ) {
+			return false;
+		}
+		long elapsed = now - this.lastResize;
+		this.lastResize = now;
+		long busy = 0;
+		for ( int i = 0; i < this.cpus.length; i++ ) {
+			long executeTime = this.cpus[i].getExecuteTime();
+			if ( i < this.active ) {
+				// A CPU only adds to its execute time once it goes idle, so a CPU that is running a process counts as
+				// busy for the whole interval
+				busy += isIdle( this.cpus[i] ) ? Math.min( elapsed, executeTime - this.lastExecuteTimes[i] ) : elapsed;
+			}
+			this.lastExecuteTimes[i] = executeTime;
+		}
+		double utilization = elapsed == 0 ? 0 : (double) busy / this.active / elapsed;
+		int target = this.active;
+		if ( depth > 0 && utilization >= GROW_UTILIZATION ) {
+			target = Math.min( this.max, this.active + depth );
+		} else if ( depth == 0 && utilization < SHRINK_UTILIZATION && this.active > this.min && isIdle(
+				this.cpus[this.active - 1] ) ) {
+			target = this.active - 1;
+		}
+		if ( target == this.active ) {
+			return false;
+		}
+		account( now );
+		this.active = target;
+		this.peak = Math.max( this.peak, target );
+		return true;
+	}
+
+	/**
+	 * Retrieves the amount of CPUs that are currently active.
+	 *
+	 * @return The amount of active CPUs.
+	 */
+	int getActive() {
+		return this.active;
+	}
+
+	/**
+	 * Retrieves the most CPUs that were active at the same time since the start of the run.
+	 *
+	 * @return The peak amount of active CPUs.
+	 */
+	int getPeak() {
+		return this.peak;
+	}
+
+	/**
+	 * Retrieves the total time that the CPUs were active, from the start of the run until now.
+	 *
+	 * @param now The current time in nanoseconds.
+	 * @return The active CPU time in nanoseconds.
+	 */
+	long getActiveTime( long now ) {
+		account( now );
+		return this.activeTime;
+	}
+
+	// Adds the CPU time since the last change in the amount of active CPUs
+	private void account( long now ) {
+		this.activeTime += this.active * ( now - this.lastChange );
+		this.lastChange = now;
+	}
+
+	private boolean isIdle( CPU cpu ) {
+		PCB current = cpu.getProcess();
+		return current == null || current.getStatus() != PCB.Status.RUNNING;
+	}
+}
@@ -0,0 +1,189 @@
+package yeezus.driver;
+
+import com.sun.istack.internal.NotNull;
+import yeezus.cpu.CPU;
+import yeezus.pcb.PCB;
+
+/**
+ * <p>Periodically moves ready processes from the queues of overloaded CPUs to the queues of underloaded CPUs, when each
+ * CPU has a ready queue of its own. See {@link Driver#enableLoadBalancing(long)}.</p><p>The load of a CPU is the
+ * amount of processes in its queue, plus one if it is running a process. When two CPUs have the same load, the one
+ * that has been busy for longer since the last pass counts as the more loaded one. Only processes that are waiting in a
+ * queue are moved, so a running process is never interrupted by a migration.</p><p>Migrations have hysteresis: they
+ * only start once the difference between the most and least loaded CPUs exceeds the high watermark, and then continue,
+ * across passes if need be, until the difference is at most the low watermark. Small imbalances, which work stealing
+ * evens out by itself, therefore never cause processes to bounce between CPUs.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class LoadBalancer {
+
+	/**
+	 * The default difference in load between the most and least loaded CPUs above which processes are migrated.
+	 */
+	public static final int DEFAULT_HIGH_WATERMARK = 2;
+
+	/**
+	 * The default difference in load between the most and least loaded CPUs at which migrations stop.
+	 */
+	public static final int DEFAULT_LOW_WATERMARK = 1;
+
+	private final CPU[] cpus;
+	private final long interval;
+	private final int highWatermark, lowWatermark;
+	private final int[] migrations;
+	private final long[] lastExecuteTimes;
+	private boolean balancing = false;
+	private long lastPass, passes = 0, totalImbalance = 0;
+
+	/**
+	 * Constructs a new load balancer with the default watermarks.
+	 *
+	 * @param cpus     The CPUs, each of which must have a ready queue of its own.
+	 * @param interval The time in nanoseconds between passes.
+	 */
+	LoadBalancer( @NotNull CPU[] cpus, long interval ) {
+		this( cpus, interval, DEFAULT_HIGH_WATERMARK, DEFAULT_LOW_WATERMARK );
+	}
+
+	/**
+	 * Constructs a new load balancer.
+	 *
+	 * @param cpus          The CPUs, each of which must have a ready queue of its own.
+	 * @param interval      The time in nanoseconds between passes.
+	 * @param highWatermark The difference in load above which processes start being migrated.
+	 * @param lowWatermark  The difference in load at which migrations stop.
+	 * @throws IllegalArgumentException Thrown if the interval isn't positive, or if the watermarks don't leave room
+	 *                                  for hysteresis.
+	 */
+	LoadBalancer( @NotNull CPU[] cpus, long interval, int highWatermark, int lowWatermark ) {
+		if ( interval <= 0 ) {
+			throw new IllegalArgumentException( "The load balancing interval must be positive." );
+		}
+		if ( lowWatermark < 1 || highWatermark <= lowWatermark ) {
+			throw new IllegalArgumentException(
+					"The low watermark must be at least 1, and below the high watermark." );
+		}
+		this.cpus = cpus;
+		this.interval = interval;
+		this.highWatermark = highWatermark;
+		this.lowWatermark = lowWatermark;
+		this.migrations = new int[cpus.length];
+		this.lastExecuteTimes = new long[cpus.length];
+	}
+
+	/**
+	 * Resets the measurements, and starts timing the passes from now.
+	 *
+	 * @param now The current time in nanoseconds.
+	 */
+	void start( long now ) {
+		this.lastPass = now;
+		this.balancing = false;
+		this.passes = 0;
+		this.totalImbalance = 0;
+		for ( int i = 0; i < this.cpus.length; i++ ) {
+			this.migrations[i] = 0;
+			this.lastExecuteTimes[i] = this.cpus[i].getExecuteTime();
+		}
+	}
+
+	/**
+	 * Retrieves the time until the next pass is due.
+	 *
+	 * @param now The current time in nanoseconds.
+	 * @return The time in nanoseconds until the next pass, or {@code 0} if it is already due.
+	 */
+	long untilNextPass( long now ) {
+		return Math.max( 0, this.lastPass + this.interval - now );
+	}
+
+	/**
+	 * Performs a pass if one is due: measures the imbalance, and migrates processes if needed.
+	 *
+	 * @param now The current time in nanoseconds.
+	 */
+	void balance( long now ) {
+		if ( untilNextPass( now ) > 0 ) {
+			return;
+		}
+		this.lastPass = now;
+		int[] loads = new int[this.cpus.length];
+		long[] busy = new long[this.cpus.length];
+		for ( int i = 0; i < this.cpus.length; i++ ) {
+			PCB current = this.cpus[i].getProcess();
+			loads[i] = this.cpus[i].getQueueLength() + ( current != null
+					&& current.getStatus() == PCB.Status.RUNNING ? 1 : 0 );
+			long executeTime = this.cpus[i].getExecuteTime();
+			busy[i] = executeTime - this.lastExecuteTimes[i];
+			this.lastExecuteTimes[i] = executeTime;
+		}
+		int spread = spread( loads, busy );
+		this.passes++;
+		this.totalImbalance += spread;
+		if ( !this.balancing && spread <= this.highWatermark ) {
+			return;
+		}
+		this.balancing = true;
+		while ( spread > this.lowWatermark ) {
+			int source = mostLoaded( loads, busy ), target = leastLoaded( loads, busy );
+			// Take the process that would have run last, which is also the one a thief would have taken
+			PCB pcb = this.cpus[source].dequeueLast();
+			if ( pcb == null ) {
+				// The source's owner or a thief emptied the queue in the meantime
+				break;
+			}
+			this.cpus[target].enqueue( pcb );
+			this.migrations[target]++;
+			loads[source]--;
+			loads[target]++;
+			spread = spread( loads, busy );
+		}
+		this.balancing = spread > this.lowWatermark;
+	}
+
+	/**
+	 * Retrieves the amount of processes that each CPU received from the queues of other CPUs since the start of the
+	 * run.
+	 *
+	 * @return The amount of processes migrated to each CPU.
+	 */
+	int[] getMigrations() {
+		return this.migrations.clone();
+	}
+
+	/**
+	 * Retrieves the average difference in load between the most and least loaded CPUs, as measured at the start of
+	 * every pass.
+	 *
+	 * @return The average imbalance, in processes, or {@code 0} if no pass has been performed.
+	 */
+	double getImbalance() {
+		return this.passes == 0 ? 0 : (double) this.totalImbalance / this.passes;
+	}
+
+	private int spread( int[] loads, long[] busy ) {
+		return loads[mostLoaded( loads, busy )] - loads[leastLoaded( loads, busy )];
+	}
+
+	private int mostLoaded( int[] loads, long[] busy ) {
+		int most = 0;
+		for ( int i = 1; i < loads.length; i++ ) {
+			if ( loads[i] > loads[most] || loads[i] == loads[most] && busy[i] > busy[most] ) {
+				most = i;
+			}
+		}
+		return most;
+	}
+
+	private int leastLoaded( int[] loads, long[] busy ) {
+		int least = 0;
+		for ( int i = 1; i < loads.length; i++ ) {
+			if ( loads[i] < loads[least] || loads[i] == loads[least] && busy[i] < busy[least] ) {
+				least = i;
+			}
+		}
+		return least;
+	}
+}
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 public class Loader {
 
 	int pid, instructionsLength, priority, inputBuffSize, outputBuffSize, tempBuffSize;
+	long deadline;
+	int group;
 	ArrayList<Word> instructionList = new ArrayList<Word>();
 	ArrayList<Word> memoryList = new ArrayList<Word>();
 	ArrayList<PCB> PCBList = new ArrayList<PCB>();
@@ -67,7 +69,13 @@ public class Loader {
 
 					subLine = subLine.substring( space + 1 ); //grabs the line
 					// System.out.println( "Grab 3rd num: " + subLine ); //prints out the line
-					priority = Integer.decode( "0x" + subLine ); //grabs priority
+					String[] fields = subLine.trim().split( "\\s+" );
+					priority = Integer.decode( "0x" + fields[0] ); //grabs priority
+					// The deadline and group are optional, and a deadline of "-" means there is none
+					deadline = fields.length > 1 && !fields[1].equals( "-" ) ?
+							Long.decode( "0x" + fields[1] ) :
+							PCB.NO_DEADLINE;
+					group = fields.length > 2 ? Integer.decode( "0x" + fields[2] ) : 0;
 
 					startInstructionAddress = currAddress;
 
@@ -105,7 +113,7 @@ public class Loader {
 				}
 				if ( currentLine.contains( "END" ) ) {
 					processList.addPCB( pid, startInstructionAddress, instructionsLength, inputBuffSize, outputBuffSize,
-							tempBuffSize, priority );
+							tempBuffSize, priority, deadline, group );
 				}
 
 			} else {
@@ -123,7 +131,8 @@ public class Loader {
 
 }
 
-//Job 1 17 2
-// pid, number of words in instructions, priority number
+//Job 1 17 2 2710 3
+// pid, number of words in instructions, priority number, optional deadline in microseconds after the job arrives
+// (or - for none), optional group id
 
 //Data 14 C C  input buffer, output buffer, temp buffer
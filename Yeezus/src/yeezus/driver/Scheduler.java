@@ -3,82 +3,231 @@ package yeezus.driver;
 import yeezus.memory.InvalidAddressException;
 import yeezus.memory.MMU;
 import yeezus.memory.Memory;
+import yeezus.pcb.BurstHistory;
 import yeezus.pcb.PCB;
+import yeezus.pcb.ProcessQueue;
 import yeezus.pcb.TaskManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Scheduler implements Runnable {
 
+	/**
+	 * The amount of jobs at the front of the Job Queue that the {@link AdmissionPolicy} chooses from.
+	 */
+	static final int ADMISSION_WINDOW = 64;
+
+	/**
+	 * The amount of times the first job in the Job Queue can be passed over before it must be loaded next, unless it
+	 * is changed with {@link Scheduler#setFairnessBound(int)}.
+	 */
+	static final int DEFAULT_FAIRNESS_BOUND = 8;
+
 	private MMU mmu;
 	private Memory disk;
 	private TaskManager taskManager;
 	private CPUSchedulingPolicy schedulingMethod;
+	private boolean batchAdmission = false;
+	private ExecutorService loaders;
+	private AdmissionPolicy admissionPolicy = AdmissionPolicy.InOrder;
+	private int fairnessBound = DEFAULT_FAIRNESS_BOUND, headSkips = 0;
+	private PCB head;
+	private final Queue<PCB> terminated = new ConcurrentLinkedQueue<>();
 
 	Scheduler( MMU mmu, Memory disk, TaskManager taskManager, CPUSchedulingPolicy schedulingMethod ) {
 		this.mmu = mmu;
 		this.taskManager = taskManager;
 		this.disk = disk;
 		this.schedulingMethod = schedulingMethod;
+
+		// Use what was learned about the length of each job in previous runs
+		for ( PCB pcb : taskManager ) {
+			pcb.setBurstEstimate( BurstHistory.INSTANCE.estimate( pcb ) );
+		}
+		taskManager.setJobOrder( schedulingMethod.getComparator() );
 	}
 
 	/**
-	 * Loads one process into RAM on each iteration. Iterations are called externally.
+	 * Sets whether each iteration admits as many jobs as fit in RAM, instead of a single job. Jobs are still admitted
+	 * in the order of the scheduling policy, so admission stops at the first job that doesn't fit.
+	 *
+	 * @param batchAdmission {@code true} to fill RAM on every iteration.
 	 */
-	@Override public void run() {
-		// Remove terminated processes from the RAM
+	void setBatchAdmission( boolean batchAdmission ) {
+		this.batchAdmission = batchAdmission;
+	}
+
+	/**
+	 * Sets how the next job to be loaded is chosen from the Job Queue.
+	 *
+	 * @param admissionPolicy The new admission policy.
+	 */
+	void setAdmissionPolicy( AdmissionPolicy admissionPolicy ) {
+		this.admissionPolicy = admissionPolicy;
+	}
+
+	/**
+	 * Sets how many times the first job in the Job Queue can be passed over for a job that fits better. Once it has
+	 * been passed over this many times, no other job is loaded until it fits.
+	 *
+	 * @param fairnessBound The amount of times the first job can be passed over.
+	 */
+	void setFairnessBound( int fairnessBound ) {
+		if ( fairnessBound < 0 ) {
+			throw new IllegalArgumentException( "The fairness bound can't be negative." );
+		}
+		this.fairnessBound = fairnessBound;
+	}
+
+	/**
+	 * Sets the aging rate of every job, and reorders the Job Queue by the new effective priorities. This should only be
+	 * done before the system starts running.
+	 *
+	 * @param agingRate The priority gained for every millisecond spent waiting, or {@code 0} to not age.
+	 */
+	void setAgingRate( double agingRate ) {
 		for ( PCB pcb : this.taskManager ) {
-			if ( pcb.getStatus() == PCB.Status.TERMINATED && this.mmu.processMapped( pcb ) ) {
+			pcb.setAgingRate( agingRate );
+		}
+		this.taskManager.setJobOrder( this.schedulingMethod.getComparator() );
+	}
+
+	/**
+	 * Sets the amount of threads used to copy admitted jobs from the disk into RAM. With more than one thread, the
+	 * jobs admitted in an iteration are loaded in parallel. The threads must be stopped with {@link
+	 * Scheduler#shutdown()}.
+	 *
+	 * @param threads The amount of loader threads, or {@code 1} to load the jobs on the calling thread.
+	 */
+	void setLoaderThreads( int threads ) {
+		if ( threads <= 0 ) {
+			throw new IllegalArgumentException( "There must be at least one loader thread." );
+		}
+		shutdown();
+		if ( threads > 1 ) {
+			this.loaders = Executors.newFixedThreadPool( threads, runnable -> {
+				Thread thread = new Thread( runnable, "Loader" );
+				thread.setDaemon( true );
+				return thread;
+			} );
+		}
+	}
+
+	/**
+	 * Hands a process that has terminated to this Scheduler, which writes it back to the disk and frees its memory on
+	 * its next iteration. This can be called from any thread, and must be called once for each terminated process,
+	 * since iterations don't look through every process for terminated ones.
+	 *
+	 * @param pcb The {@link PCB} of the process, which must be {@link PCB.Status#TERMINATED}.
+	 */
+	void processTerminated( PCB pcb ) {
+		this.terminated.add( pcb );
+	}
+
+	/**
+	 * Stops the loader threads, if there are any.
+	 */
+	void shutdown() {
+		if ( this.loaders != null ) {
+			this.loaders.shutdown();
+			this.loaders = null;
+		}
+	}
+
+	/**
+	 * Loads one process into RAM on each iteration, or as many as fit with {@link
+	 * Scheduler#setBatchAdmission(boolean)}. Iterations are called externally.
+	 */
+	@Override public void run() {
+		// Remove the processes that terminated since the last iteration from the RAM
+		PCB done;
+		while ( ( done = this.terminated.poll() ) != null ) {
+			if ( this.mmu.processMapped( done ) ) {
 				try {
 					// Write process back to disk
-					for ( int i = 0; i < pcb.getTotalSize(); i++ ) {
-						this.disk.write( pcb.getStartDiskAddress() + i, this.mmu.read( pcb, i ) );
-					}
+					this.mmu.store( done, this.disk );
 					// Terminate the process's memory
-					this.mmu.terminateProcessMemory( pcb );
+					this.mmu.terminateProcessMemory( done );
+					BurstHistory.INSTANCE.record( done );
 				} catch ( InvalidAddressException e ) {
 					// Do nothing, process has already been removed
 				}
 			}
 		}
 
-		// Add new process to MMU/Ready Queue
-		List<PCB> list = this.taskManager.getJobQueue();
-
-		// Find next process
-		if ( list.size() > 0 ) {
-			PCB next = list.get( 0 );
-			if ( this.schedulingMethod == CPUSchedulingPolicy.Priority ) {
-				//Find highest priority process
-				for ( PCB pcb : list ) {
-					if ( next.getPriority() < pcb.getPriority() ) {
-						next = pcb;
-					}
-				}
-			} else if ( this.schedulingMethod == CPUSchedulingPolicy.FCFS ) {
-				// Find the next loaded process
-				next = list.get( 0 );
+		// Add new processes to MMU/Ready Queue. The Job Queue is already ordered by the scheduling policy
+		ProcessQueue jobQueue = this.taskManager.getJobQueue();
+		List<PCB> admitted = new ArrayList<>();
+		PCB next;
+		// Verify that each process's memory can be mapped
+		while ( ( next = selectNext( jobQueue ) ) != null && this.mmu.mapMemory( next ) ) {
+			// System.out.println( "Scheduling Process " + next.getPID() );
+			jobQueue.remove( next );
+			admitted.add( next );
+			if ( !this.batchAdmission ) {
+				break;
 			}
+		}
 
-			// System.out.println( "Scheduling Process " + next.getPID() );
+		try {
+			load( admitted );
+		} catch ( InvalidAddressException | ExecutionException | InterruptedException e ) {
+			e.printStackTrace();
+			System.err.println(
+					"Fatal error. The addresses have already been mapped, so there should be no issues writing. Check the PCB.getTotalSize() method's calculation." );
+			System.exit( 1 );
+		}
+		for ( PCB pcb : admitted ) {
+			this.taskManager.getReadyQueue().add( pcb );
+			pcb.setStatus( PCB.Status.READY );
+		}
+	}
 
-			// Verify that the process's memory can be mapped
-			if ( this.mmu.mapMemory( next ) ) {
-				list.remove( next );
-				int totalSize = next.getTotalSize();
-				for ( int i = 0; i < totalSize; i++ ) {
-					try {
-						this.mmu.write( next, i, this.disk.read( next.getStartDiskAddress() + i ) );
-					} catch ( InvalidAddressException e ) {
-						e.printStackTrace();
-						System.err.println(
-								"Fatal error. The addresses have already been mapped, so there should be no issues writing. Check the PCB.getTotalSize() method's calculation." );
-						System.exit( 1 );
-					}
-				}
-				this.taskManager.getReadyQueue().add( next );
-				next.setStatus( PCB.Status.READY );
+	private PCB selectNext( ProcessQueue jobQueue ) {
+		PCB first = jobQueue.peek();
+		if ( first == null ) {
+			return null;
+		}
+		if ( first != this.head ) {
+			this.head = first;
+			this.headSkips = 0;
+		}
+		if ( this.headSkips >= this.fairnessBound ) {
+			// The first job has waited long enough, so nothing else is loaded until it fits
+			return first;
+		}
+		PCB next = this.admissionPolicy.select( jobQueue.peek( ADMISSION_WINDOW ), this.mmu.getFreeSpace() );
+		if ( next != null && next != first ) {
+			this.headSkips++;
+		}
+		return next;
+	}
+
+	private void load( List<PCB> admitted ) throws InvalidAddressException, ExecutionException, InterruptedException {
+		if ( this.loaders == null || admitted.size() < 2 ) {
+			for ( PCB pcb : admitted ) {
+				this.mmu.load( pcb, this.disk );
 			}
+			return;
+		}
+		List<Callable<Void>> loads = new ArrayList<>();
+		for ( PCB pcb : admitted ) {
+			loads.add( () -> {
+				this.mmu.load( pcb, this.disk );
+				return null;
+			} );
+		}
+		for ( Future<Void> load : this.loaders.invokeAll( loads ) ) {
+			// Rethrows any exception from the load
+			load.get();
 		}
 	}
 }
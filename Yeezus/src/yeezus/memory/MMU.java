@@ -1,13 +1,19 @@
 package yeezus.memory;
 
+import com.sun.istack.internal.NotNull;
 import yeezus.pcb.PCB;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * The MMU helps organize the RAM {@link Memory} in the {@link yeezus} Operating System. The MMU keeps track of which
- * processes own which RAM addresses or blocks of addresses, and acts as the translator between logical and physical
- * memory.
+ * <p>The MMU helps organize the RAM {@link Memory} in the {@link yeezus} Operating System. The MMU keeps track of
+ * which processes own which RAM addresses or blocks of addresses, and acts as the translator between logical and
+ * physical memory.</p><p>The RAM is shared by every CPU, DMA channel, and loader thread, and {@link Memory} isn't
+ * synchronized, so the RAM must only be accessed through this MMU. Every read and write holds the MMU's lock, and the
+ * bulk copies of {@link MMU#load(PCB, Memory)} and {@link MMU#store(PCB, Memory)} pin the addresses they copy.</p>
  *
  * @author Mark Zeagler
  * @version 2.0
@@ -16,7 +22,9 @@ public class MMU {
 
 	private ArrayList<ArrayList<Integer>> addressMap;
 	private ArrayList<Integer> freeAddresses;
-	private Memory RAM;
+	private final Memory RAM;
+	// The amount of copies in progress for each PID whose RAM is being loaded or stored outside of the lock
+	private final Map<Integer, Integer> pins = new HashMap<>();
 
 	/**
 	 * Constructs a new MMU around the given RAM.
@@ -49,17 +57,100 @@ public class MMU {
 		if ( size > this.freeAddresses.size() ) {
 			return false;
 		}
+		// Take all of the addresses at once, rather than shifting the free list for every address
+		List<Integer> addresses = this.freeAddresses.subList( 0, size );
+		for ( int i = 0; i < size; i++ ) {
+			mapAddress( pid, i, addresses.get( i ) );
+		}
+		addresses.clear();
+		return true;
+	}
+
+	/**
+	 * Retrieves the amount of free addresses in RAM.
+	 *
+	 * @return The amount of {@link Word}s that can still be mapped to processes.
+	 */
+	public synchronized int getFreeSpace() {
+		return this.freeAddresses.size();
+	}
+
+	/**
+	 * <p>Copies a process from the given memory, starting at its start disk address, into the RAM mapped to it.
+	 * Addresses that are next to each other in RAM are copied as a single block.</p><p>Only looking up the mapped
+	 * addresses is synchronized, so several processes can be loaded in parallel. The addresses are pinned while they
+	 * are copied, so {@link MMU#terminateProcessMemory(PCB)} waits for the copy instead of handing them to another
+	 * process in the meantime. This is safe as long as the process is not running while it is loaded.</p>
+	 *
+	 * @param pcb    The PCB of the mapped process.
+	 * @param source The memory the process is copied from, usually the disk.
+	 * @throws InvalidAddressException Thrown if the process is not mapped, or if it doesn't fit in the source.
+	 */
+	public void load( PCB pcb, Memory source ) throws InvalidAddressException {
+		int[] addresses = pin( pcb );
 		try {
-			for ( int i = 0; i < size; i++ ) {
-				mapAddress( pid, i );
+			int start = pcb.getStartDiskAddress();
+			for ( int i = 0, block; i < addresses.length; i += block ) {
+				block = blockLength( addresses, i );
+				this.RAM.copy( source, start + i, addresses[i], block );
 			}
-			return true;
-		} catch ( InvalidAddressException e ) {
-			terminateProcessMemory( pcb );
-			return false;
+		} finally {
+			unpin( pcb );
 		}
 	}
 
+	/**
+	 * Copies a process from the RAM mapped to it back to the given memory, starting at its start disk address. This
+	 * is the reverse of {@link MMU#load(PCB, Memory)}: the addresses are pinned while they are copied, and the process
+	 * must not be running while it is stored.
+	 *
+	 * @param pcb         The PCB of the mapped process.
+	 * @param destination The memory the process is copied to, usually the disk.
+	 * @throws InvalidAddressException Thrown if the process is not mapped, or if it doesn't fit in the destination.
+	 */
+	public void store( PCB pcb, Memory destination ) throws InvalidAddressException {
+		int[] addresses = pin( pcb );
+		try {
+			int start = pcb.getStartDiskAddress();
+			for ( int i = 0, block; i < addresses.length; i += block ) {
+				block = blockLength( addresses, i );
+				destination.copy( this.RAM, addresses[i], start + i, block );
+			}
+		} finally {
+			unpin( pcb );
+		}
+	}
+
+	// Looks up the physical addresses of a process, and keeps them from being freed until the process is unpinned
+	private synchronized int[] pin( PCB pcb ) throws InvalidAddressException {
+		List<Integer> processAddresses =
+				pcb.getPID() < this.addressMap.size() ? this.addressMap.get( pcb.getPID() ) : null;
+		if ( processAddresses == null ) {
+			throw new InvalidAddressException( "Process " + pcb.getPID() + " is not mapped to any physical address." );
+		}
+		int[] addresses = new int[processAddresses.size()];
+		for ( int i = 0; i < addresses.length; i++ ) {
+			addresses[i] = processAddresses.get( i );
+		}
+		this.pins.merge( pcb.getPID(), 1, Integer::sum );
+		return addresses;
+	}
+
+	private synchronized void unpin( PCB pcb ) {
+		if ( this.pins.merge( pcb.getPID(), -1, Integer::sum ) == 0 ) {
+			this.pins.remove( pcb.getPID() );
+			notifyAll();
+		}
+	}
+
+	private static int blockLength( int[] addresses, int start ) {
+		int end = start + 1;
+		while ( end < addresses.length && addresses[end] == addresses[end - 1] + 1 ) {
+			end++;
+		}
+		return end - start;
+	}
+
 	/**
 	 * Checks if the given Process ID has any associated memory mappings in RAM.
 	 *
@@ -134,6 +225,30 @@ public class MMU {
 		}
 	}
 
+	/**
+	 * Reads a block of consecutive logical addresses for the given process while holding the MMU only once.
+	 *
+	 * @param pcb            The PCB of the process whose memory is to be read.
+	 * @param logicalAddress The first logical address to be read.
+	 * @param buffer         The array that the {@link Word}s are read into, starting at index {@code 0}.
+	 * @param length         The amount of words to be read.
+	 * @throws InvalidAddressException Thrown if any of the logical addresses have not been mapped to physical
+	 *                                 addresses.
+	 */
+	public synchronized void read( PCB pcb, int logicalAddress, @NotNull Word[] buffer, int length )
+			throws InvalidAddressException {
+		try {
+			List<Integer> addresses = this.addressMap.get( pcb.getPID() );
+			for ( int i = 0; i < length; i++ ) {
+				buffer[i] = this.RAM.read( addresses.get( logicalAddress + i ) );
+			}
+		} catch ( IndexOutOfBoundsException | NullPointerException e ) {
+			throw new InvalidAddressException(
+					"The given logical addresses, " + logicalAddress + " to " + ( logicalAddress + length - 1 )
+							+ ", are not mapped to physical addresses." );
+		}
+	}
+
 	/**
 	 * Writes the given {@link Word} to the given physical address.
 	 *
@@ -158,7 +273,32 @@ public class MMU {
 	}
 
 	/**
-	 * Un-maps the memory for a terminated process, freeing it up so that another can use it.
+	 * Writes a block of words to consecutive logical addresses for the given process while holding the MMU only once.
+	 *
+	 * @param pcb            The PCB of the process whose memory is to be written to.
+	 * @param logicalAddress The first logical address to be written to.
+	 * @param data           The {@link Word}s to be stored, starting at index {@code 0}.
+	 * @param length         The amount of words to be written.
+	 * @throws InvalidAddressException Thrown if any of the logical addresses have not been mapped to physical
+	 *                                 addresses.
+	 */
+	public synchronized void write( PCB pcb, int logicalAddress, @NotNull Word[] data, int length )
+			throws InvalidAddressException {
+		try {
+			List<Integer> addresses = this.addressMap.get( pcb.getPID() );
+			for ( int i = 0; i < length; i++ ) {
+				this.RAM.write( addresses.get( logicalAddress + i ), data[i] );
+			}
+		} catch ( IndexOutOfBoundsException | NullPointerException e ) {
+			throw new InvalidAddressException(
+					"The given logical addresses, " + logicalAddress + " to " + ( logicalAddress + length - 1 )
+							+ ", are not mapped to physical addresses." );
+		}
+	}
+
+	/**
+	 * Un-maps the memory for a terminated process, freeing it up so that another can use it. If the memory is being
+	 * loaded or stored, this waits for the copy to finish first.
 	 *
 	 * @param pcb The PCB of the process whose memory is to be freed.
 	 */
@@ -167,6 +307,18 @@ public class MMU {
 			return;
 		}
 		int pid = pcb.getPID();
+		boolean interrupted = false;
+		while ( this.pins.containsKey( pid ) ) {
+			try {
+				wait();
+			} catch ( InterruptedException e ) {
+				// The memory has to be freed either way, so the interrupt is only passed on afterwards
+				interrupted = true;
+			}
+		}
+		if ( interrupted ) {
+			Thread.currentThread().interrupt();
+		}
 		if ( this.addressMap.size() > pid && processMapped( pcb ) && this.addressMap.get( pid ) != null ) {
 			while ( !this.addressMap.get( pid ).isEmpty() ) {
 				this.freeAddresses.add( this.addressMap.get( pid ).remove( 0 ) );
@@ -3,7 +3,9 @@ package yeezus.memory;
 import com.sun.istack.internal.NotNull;
 
 /**
- * A storage mechanism for {@link Word}s in the {@link yeezus} operating system.
+ * <p>A storage mechanism for {@link Word}s in the {@link yeezus} operating system.</p><p>Memory is not synchronized,
+ * since the registers and cache are only used by the thread of their CPU. Memory that is shared between threads, like
+ * the RAM, must be accessed through something that synchronizes it, like the {@link MMU}.</p>
  *
  * @author Mark Zeagler
  * @version 2.0
@@ -33,7 +35,7 @@ public class Memory {
 	 * @throws InvalidAddressException Thrown if the physical address given is outside of the scope of this
 	 *                                 memory.memory.
 	 */
-	public synchronized Word read( int physicalAddress ) throws InvalidAddressException {
+	public Word read( int physicalAddress ) throws InvalidAddressException {
 		if ( physicalAddress > this.storage.length ) {
 			throw new InvalidAddressException(
 					"Address: " + physicalAddress + " is too high. The capacity is: " + this.storage.length );
@@ -52,7 +54,7 @@ public class Memory {
 	 * @throws InvalidAddressException Thrown if the physical address given is outside of the scope of this
 	 *                                 memory.memory.
 	 */
-	public synchronized void write( int physicalAddress, @NotNull Word word ) throws InvalidAddressException {
+	public void write( int physicalAddress, @NotNull Word word ) throws InvalidAddressException {
 		if ( physicalAddress > this.storage.length ) {
 			throw new InvalidAddressException(
 					"Address: " + physicalAddress + " is too high. The capacity is: " + this.storage.length );
@@ -63,6 +65,37 @@ public class Memory {
 		this.storage[physicalAddress] = word;
 	}
 
+	/**
+	 * Copies the contents of the given memory into this memory. If the two memories are different sizes, only the
+	 * addresses that exist in both are copied.
+	 *
+	 * @param source The memory to be copied.
+	 */
+	public void copy( @NotNull Memory source ) {
+		System.arraycopy( source.storage, 0, this.storage, 0, Math.min( source.storage.length, this.storage.length ) );
+	}
+
+	/**
+	 * Copies a block of {@link Word}s from the given memory into this memory in a single operation.
+	 *
+	 * @param source             The memory to be copied from.
+	 * @param sourceAddress      The physical address of the first word to be copied in the source.
+	 * @param destinationAddress The physical address in this memory that the first word is copied to.
+	 * @param length             The amount of words to be copied.
+	 * @throws InvalidAddressException Thrown if the block is outside of the scope of either memory.
+	 */
+	public void copy( @NotNull Memory source, int sourceAddress, int destinationAddress, int length )
+			throws InvalidAddressException {
+		if ( sourceAddress < 0 || destinationAddress < 0 || length < 0
+				|| sourceAddress + length > source.storage.length
+				|| destinationAddress + length > this.storage.length ) {
+			throw new InvalidAddressException(
+					"Can't copy " + length + " words from address " + sourceAddress + " to address "
+							+ destinationAddress + "." );
+		}
+		System.arraycopy( source.storage, sourceAddress, this.storage, destinationAddress, length );
+	}
+
 	/**
 	 * Returns the storage capacity of this memory instance.
 	 *
@@ -0,0 +1,122 @@
+package yeezus.memory;
+
+import com.sun.istack.internal.NotNull;
+import yeezus.pcb.PCB;
+
+/**
+ * <p>A small staging buffer that coalesces a process's I/O transfers into bursts, so that the {@link MMU} is held once
+ * per burst instead of once per word. Each process has one of its own. See {@link PCB#getTransferBuffer()}.</p><p>When
+ * a read continues a sequential run of reads, the words from that address up to the size of the buffer are read in a
+ * single burst, and the reads that follow are served from the buffer. Any other read transfers a single word.
+ * Writes to consecutive addresses are combined in the buffer and written back in a single burst when a write breaks
+ * the run, when the buffer is full, before the next burst is read, and when the process terminates, with {@link
+ * TransferBuffer#flush(MMU, PCB)}.</p><p>Since a process's memory is only written through its own buffer, the words
+ * staged for reading are kept up to date by its writes. The buffer is not synchronized, since the process is only
+ * transferring on one thread at a time.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class TransferBuffer {
+
+	/**
+	 * The maximum amount of words in a single burst.
+	 */
+	public static final int CAPACITY = 8;
+
+	private final Word[] reads = new Word[CAPACITY], writes = new Word[CAPACITY];
+	private int readStart = 0, readLength = 0, lastRead = -2;
+	private int writeStart = 0, writeLength = 0;
+	private long transfers = 0, words = 0;
+
+	/**
+	 * Reads the word at a logical address of a process, from the buffer if it has been staged.
+	 *
+	 * @param mmu            The MMU that manages the process's memory.
+	 * @param pcb            The {@link PCB} of the process that owns this buffer.
+	 * @param logicalAddress The logical address to be read.
+	 * @return The {@link Word} stored at the logical address.
+	 * @throws InvalidAddressException Thrown if the logical address has not been mapped to a physical address.
+	 */
+	public Word read( @NotNull MMU mmu, @NotNull PCB pcb, int logicalAddress ) throws InvalidAddressException {
+		boolean sequential = logicalAddress == this.lastRead + 1;
+		this.lastRead = logicalAddress;
+		if ( logicalAddress >= this.readStart && logicalAddress < this.readStart + this.readLength ) {
+			return this.reads[logicalAddress - this.readStart];
+		}
+		// The staged writes have to reach the RAM before it is read
+		flush( mmu, pcb );
+		int length = sequential ? Math.max( 1, Math.min( CAPACITY, pcb.getTotalSize() - logicalAddress ) ) : 1;
+		this.readLength = 0;
+		mmu.read( pcb, logicalAddress, this.reads, length );
+		this.readStart = logicalAddress;
+		this.readLength = length;
+		this.transfers++;
+		this.words += length;
+		return this.reads[0];
+	}
+
+	/**
+	 * Writes a word to a logical address of a process. The word may be held in the buffer until it is flushed.
+	 *
+	 * @param mmu            The MMU that manages the process's memory.
+	 * @param pcb            The {@link PCB} of the process that owns this buffer.
+	 * @param logicalAddress The logical address to be written to.
+	 * @param data           The {@link Word} to be stored.
+	 * @throws InvalidAddressException Thrown if the logical address has not been mapped to a physical address.
+	 */
+	public void write( @NotNull MMU mmu, @NotNull PCB pcb, int logicalAddress, @NotNull Word data )
+			throws InvalidAddressException {
+		if ( logicalAddress >= this.readStart && logicalAddress < this.readStart + this.readLength ) {
+			this.reads[logicalAddress - this.readStart] = data;
+		}
+		if ( this.writeLength > 0 && logicalAddress >= this.writeStart
+				&& logicalAddress < this.writeStart + this.writeLength ) {
+			this.writes[logicalAddress - this.writeStart] = data;
+			return;
+		}
+		if ( this.writeLength == 0 || logicalAddress != this.writeStart + this.writeLength
+				|| this.writeLength == CAPACITY ) {
+			flush( mmu, pcb );
+			this.writeStart = logicalAddress;
+		}
+		this.writes[this.writeLength++] = data;
+	}
+
+	/**
+	 * Writes every staged write back to the process's memory in a single burst.
+	 *
+	 * @param mmu The MMU that manages the process's memory.
+	 * @param pcb The {@link PCB} of the process that owns this buffer.
+	 * @throws InvalidAddressException Thrown if a staged address has not been mapped to a physical address.
+	 */
+	public void flush( @NotNull MMU mmu, @NotNull PCB pcb ) throws InvalidAddressException {
+		if ( this.writeLength == 0 ) {
+			return;
+		}
+		int length = this.writeLength;
+		this.writeLength = 0;
+		mmu.write( pcb, this.writeStart, this.writes, length );
+		this.transfers++;
+		this.words += length;
+	}
+
+	/**
+	 * Retrieves the amount of bursts that have been transferred between this buffer and the RAM.
+	 *
+	 * @return The amount of transfers.
+	 */
+	public long getTransfers() {
+		return this.transfers;
+	}
+
+	/**
+	 * Retrieves the amount of words that have been transferred between this buffer and the RAM, including the words
+	 * that were staged but never read.
+	 *
+	 * @return The amount of words transferred.
+	 */
+	public long getWords() {
+		return this.words;
+	}
+}
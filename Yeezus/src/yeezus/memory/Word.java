@@ -8,6 +8,9 @@ package yeezus.memory;
  */
 public class Word {
 
+	// One more than the largest value that fits in a Word
+	private static final long LIMIT = 0x100000000L;
+
 	/**
 	 * Each memory.Word is 4 {@link Byte}s long.
 	 */
@@ -43,7 +46,7 @@ public class Word {
 	 * @throws InvalidWordException Thrown if the data is greater than (2^9)-1 or less than 0.
 	 */
 	public Word( long data ) throws InvalidWordException {
-		if ( data < 0xFFFFFFFF || data >= Long.decode( "0x100000000" ) ) {
+		if ( data < 0xFFFFFFFF || data >= LIMIT ) {
 			throw new InvalidWordException(
 					"Argument " + data + " is too long. Please limit hex arguments to under 0xFFFFFFFF." );
 		}
@@ -0,0 +1,58 @@
+package yeezus.pcb;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Keeps track of how many instructions each job has needed in the past, so that the shortest jobs can be scheduled
+ * first. Like the {@link TaskManager}, it is a singleton, but it is <b>not</b> cleared by {@link TaskManager#reset()},
+ * so that what is learned in one run is used in the next.</p><p>The estimate for a job that has never completed is
+ * its instruction length. Every time the job completes, the estimate is updated with an exponential average of the
+ * instructions it actually executed: {@code estimate = ALPHA * executed + (1 - ALPHA) * estimate}.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public enum BurstHistory {
+
+	/**
+	 * This ensures that there's only a single instance.
+	 */
+	INSTANCE;
+
+	/**
+	 * The weight given to the most recent run of a job.
+	 */
+	public static final double ALPHA = 0.5;
+
+	private final Map<Integer, Double> estimates = new HashMap<>();
+
+	/**
+	 * Retrieves the estimated amount of instructions the given process will execute in total.
+	 *
+	 * @param pcb The {@link PCB} of the process.
+	 * @return The estimated length of the process in instructions.
+	 */
+	public synchronized double estimate( @NotNull PCB pcb ) {
+		Double estimate = this.estimates.get( pcb.getPID() );
+		return estimate == null ? pcb.getInstructionsLength() : estimate;
+	}
+
+	/**
+	 * Updates the estimate for a process that has completed, using the amount of instructions it executed.
+	 *
+	 * @param pcb The {@link PCB} of the completed process.
+	 */
+	public synchronized void record( @NotNull PCB pcb ) {
+		this.estimates.put( pcb.getPID(), ALPHA * pcb.getExecutionCount() + ( 1 - ALPHA ) * estimate( pcb ) );
+	}
+
+	/**
+	 * Forgets every estimate that has been learned.
+	 */
+	public synchronized void reset() {
+		this.estimates.clear();
+	}
+}
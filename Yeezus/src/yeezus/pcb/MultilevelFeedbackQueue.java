@@ -0,0 +1,212 @@
+package yeezus.pcb;
+
+import com.sun.istack.internal.NotNull;
+import yeezus.Clock;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A Ready Queue made of several First-Come, First-Served queues, one for each level. Processes are always taken
+ * from the highest level that isn't empty, and each lower level gets a time quantum twice as long as the level above
+ * it.</p><p>Every process starts in the highest level. When a process is preempted, {@link
+ * MultilevelFeedbackQueue#feedback(PCB, int)} demotes it if it used its whole quantum without doing much I/O, and
+ * promotes it if it did. To keep the processes in the lower levels from starving, every process in the queue is moved
+ * back to the highest level once every boost interval.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class MultilevelFeedbackQueue extends AbstractQueue<PCB> {
+
+	/**
+	 * The default amount of levels in the queue.
+	 */
+	public static final int DEFAULT_LEVELS = 3;
+
+	/**
+	 * The default time quantum, in instructions, of the highest level.
+	 */
+	public static final int DEFAULT_BASE_QUANTUM = 8;
+
+	/**
+	 * The default time in nanoseconds between each priority boost.
+	 */
+	public static final long DEFAULT_BOOST_INTERVAL = 10000000;
+
+	/**
+	 * A process is promoted if at least one in this many of the instructions in its burst were I/O operations.
+	 */
+	public static final int IO_BOUND_RATIO = 8;
+
+	private final List<Queue<PCB>> levels;
+	private final int baseQuantum;
+	private final long boostInterval;
+	private final AtomicInteger size = new AtomicInteger( 0 );
+	private volatile long lastBoost;
+	private int boosts = 0;
+
+	/**
+	 * Constructs a new queue with the default levels, base quantum, and boost interval.
+	 */
+	public MultilevelFeedbackQueue() {
+		this( DEFAULT_LEVELS, DEFAULT_BASE_QUANTUM, DEFAULT_BOOST_INTERVAL );
+	}
+
+	/**
+	 * Constructs a new queue from the given parameters.
+	 *
+	 * @param levels        The amount of levels in the queue.
+	 * @param baseQuantum   The time quantum, in instructions, of the highest level.
+	 * @param boostInterval The time in nanoseconds between each priority boost, or {@code 0} to never boost.
+	 */
+	public MultilevelFeedbackQueue( int levels, int baseQuantum, long boostInterval ) {
+		if ( levels <= 0 || baseQuantum <= 0 || boostInterval < 0 ) {
+			throw new IllegalArgumentException(
+					"The levels and base quantum must be positive, and the boost interval can't be negative." );
+		}
+		this.levels = new ArrayList<>( levels );
+		for ( int i = 0; i < levels; i++ ) {
+			this.levels.add( new ConcurrentLinkedQueue<>() );
+		}
+		this.baseQuantum = baseQuantum;
+		this.boostInterval = boostInterval;
+		this.lastBoost = Clock.INSTANCE.nanoTime();
+	}
+
+	/**
+	 * Retrieves the amount of levels in this queue.
+	 *
+	 * @return The amount of levels in this queue.
+	 */
+	public int getLevels() {
+		return this.levels.size();
+	}
+
+	/**
+	 * Retrieves the time quantum given to processes taken from the given level.
+	 *
+	 * @param level The level of the queue.
+	 * @return The time quantum, in instructions, of the given level.
+	 */
+	public int getQuantum( int level ) {
+		return this.baseQuantum << level;
+	}
+
+	/**
+	 * Retrieves the amount of priority boosts that have been performed.
+	 *
+	 * @return The amount of priority boosts.
+	 */
+	public synchronized int getBoosts() {
+		return this.boosts;
+	}
+
+	/**
+	 * Moves a preempted process to the level it should return to, based on its last CPU burst. A process that used its
+	 * whole quantum is demoted unless at least one in {@link MultilevelFeedbackQueue#IO_BOUND_RATIO} of its
+	 * instructions were I/O operations, in which case it is promoted instead. This does not add the process to the
+	 * queue.
+	 *
+	 * @param pcb     The {@link PCB} of the preempted process.
+	 * @param quantum The time quantum the process was given.
+	 */
+	public void feedback( @NotNull PCB pcb, int quantum ) {
+		int level = Math.min( pcb.getQueueLevel(), this.levels.size() - 1 );
+		if ( pcb.getBurstIO() * IO_BOUND_RATIO >= pcb.getBurstLength() ) {
+			pcb.setQueueLevel( Math.max( level - 1, 0 ) );
+		} else if ( pcb.getBurstLength() >= quantum ) {
+			pcb.setQueueLevel( Math.min( level + 1, this.levels.size() - 1 ) );
+		}
+	}
+
+	/**
+	 * Moves every process in this queue to the highest level.
+	 */
+	public synchronized void boost() {
+		List<PCB> boosted = new ArrayList<>();
+		for ( int i = 1; i < this.levels.size(); i++ ) {
+			PCB pcb;
+			while ( ( pcb = this.levels.get( i ).poll() ) != null ) {
+				boosted.add( pcb );
+			}
+		}
+		for ( PCB pcb : boosted ) {
+			pcb.setQueueLevel( 0 );
+			this.levels.get( 0 ).add( pcb );
+		}
+		this.lastBoost = Clock.INSTANCE.nanoTime();
+		this.boosts++;
+	}
+
+	/**
+	 * Restarts the time until the next priority boost at the current time of the {@link Clock}. This is used when a
+	 * run switches the Clock to logical time after this queue was created.
+	 */
+	public synchronized void resetBoostTimer() {
+		this.lastBoost = Clock.INSTANCE.nanoTime();
+	}
+
+	@Override public boolean offer( @NotNull PCB pcb ) {
+		int level = Math.max( 0, Math.min( pcb.getQueueLevel(), this.levels.size() - 1 ) );
+		pcb.setQueueLevel( level );
+		this.levels.get( level ).add( pcb );
+		this.size.incrementAndGet();
+		return true;
+	}
+
+	@Override public PCB poll() {
+		if ( this.boostInterval > 0 && Clock.INSTANCE.nanoTime() - this.lastBoost >= this.boostInterval ) {
+			boost();
+		}
+		for ( Queue<PCB> level : this.levels ) {
+			PCB pcb = level.poll();
+			if ( pcb != null ) {
+				this.size.decrementAndGet();
+				return pcb;
+			}
+		}
+		return null;
+	}
+
+	@Override public PCB peek() {
+		for ( Queue<PCB> level : this.levels ) {
+			PCB pcb = level.peek();
+			if ( pcb != null ) {
+				return pcb;
+			}
+		}
+		return null;
+	}
+
+	@Override public int size() {
+		return this.size.get();
+	}
+
+	@Override public void clear() {
+		for ( Queue<PCB> level : this.levels ) {
+			level.clear();
+		}
+		this.size.set( 0 );
+	}
+
+	/**
+	 * Iterates over the processes in this queue from the highest level to the lowest. Removing processes through the
+	 * iterator is not supported.
+	 *
+	 * @return An iterator over the processes in this queue.
+	 */
+	@Override public Iterator<PCB> iterator() {
+		List<PCB> processes = new ArrayList<>();
+		for ( Queue<PCB> level : this.levels ) {
+			processes.addAll( level );
+		}
+		return Collections.unmodifiableList( processes ).iterator();
+	}
+}
@@ -2,7 +2,9 @@ package yeezus.pcb;
 
 import com.sun.istack.internal.NotNull;
 import com.sun.istack.internal.Nullable;
+import yeezus.Clock;
 import yeezus.memory.Memory;
+import yeezus.memory.TransferBuffer;
 
 /**
  * A class to hold various information relating to the processes run by the Yeezus Operating System. The data held by
@@ -15,11 +17,29 @@ import yeezus.memory.Memory;
  */
 public class PCB {
 
+	/**
+	 * The amount of priorities in each priority class.
+	 */
+	public static final int PRIORITY_CLASS_WIDTH = 4;
+
+	/**
+	 * Used as the deadline of a process that doesn't have one.
+	 */
+	public static final long NO_DEADLINE = -1;
+
 	private final int pid, startDiskAddress, instructionsLength, inputBufferLength, outputBufferLength, tempBufferLength, priority;
 	private int cpuID = -1, pc, executionCount, numIO = 0;
-	private long clock, elapsedWaitTime, elapsedRunTime;
+	private int queueLevel = 0, burstStartExecutionCount, burstStartIO;
+	private long arrival, clock, waitStart, elapsedWaitTime, elapsedRunTime, responseTime = -1;
+	private final long deadline;
+	private final int group;
+	private double agingRate = 0;
+	private double burstEstimate;
+	private int queueIndex = -1;
+	private long queueSequence;
 	private Status status;
 	private Memory cache, registers;
+	private final TransferBuffer transferBuffer = new TransferBuffer();
 
 	/**
 	 * Constructs a PCB with the given characteristics.
@@ -34,7 +54,29 @@ public class PCB {
 	 */
 	PCB( int pid, int startDiskAddress, int instructionsLength, int inputBufferLength, int outputBufferLength,
 			int tempBufferLength, int priority ) {
-		this.clock = System.nanoTime();
+		this( pid, startDiskAddress, instructionsLength, inputBufferLength, outputBufferLength, tempBufferLength,
+				priority, NO_DEADLINE, 0 );
+	}
+
+	/**
+	 * Constructs a PCB with the given characteristics, a completion deadline, and a group.
+	 *
+	 * @param pid                The PCB ID of the new PCB.
+	 * @param startDiskAddress   The start address of the Instructions on the disk.
+	 * @param instructionsLength The the amount of Instructions on the disk.
+	 * @param inputBufferLength  The size of the Input Buffer on the disk.
+	 * @param outputBufferLength The size of the Output Buffer on the disk.
+	 * @param tempBufferLength   The size of the Temp Buffer on the disk.
+	 * @param priority           The given priority of the PCB.
+	 * @param deadline           The time in microseconds after it arrives that the process must be completed by, or
+	 *                           {@link PCB#NO_DEADLINE}.
+	 * @param group              The ID of the group that the process belongs to.
+	 */
+	PCB( int pid, int startDiskAddress, int instructionsLength, int inputBufferLength, int outputBufferLength,
+			int tempBufferLength, int priority, long deadline, int group ) {
+		this.clock = Clock.INSTANCE.nanoTime();
+		this.arrival = this.clock;
+		this.waitStart = this.clock;
 		this.elapsedWaitTime = 0;
 		this.elapsedRunTime = 0;
 		this.status = Status.NEW;
@@ -45,6 +87,9 @@ public class PCB {
 		this.outputBufferLength = outputBufferLength;
 		this.tempBufferLength = tempBufferLength;
 		this.priority = priority;
+		this.deadline = deadline;
+		this.group = group;
+		this.burstEstimate = instructionsLength;
 	}
 
 	/**
@@ -101,6 +146,15 @@ public class PCB {
 		this.registers = registers;
 	}
 
+	/**
+	 * Retrieves the buffer that coalesces this process's I/O transfers. It goes with the process from CPU to CPU.
+	 *
+	 * @return The {@link TransferBuffer} of this process.
+	 */
+	public TransferBuffer getTransferBuffer() {
+		return this.transferBuffer;
+	}
+
 	/**
 	 * Retrieves the CPUID of the CPU that this process is running on.
 	 *
@@ -254,6 +308,115 @@ public class PCB {
 		return this.status;
 	}
 
+	/**
+	 * Retrieves the group that this process belongs to, such as the team that submitted it. Groups share the CPUs
+	 * under the {@link StrideQueue}.
+	 *
+	 * @return The ID of the group of this process, which is {@code 0} unless the program file gives one.
+	 */
+	public int getGroup() {
+		return this.group;
+	}
+
+	/**
+	 * Checks if this process has a completion deadline.
+	 *
+	 * @return {@code true} if this process has a deadline.
+	 */
+	public boolean hasDeadline() {
+		return this.deadline != NO_DEADLINE;
+	}
+
+	/**
+	 * Retrieves the completion deadline of this process. The deadline is measured from when the process arrived, which
+	 * is when its PCB was created, just like its wait time.
+	 *
+	 * @return The time in microseconds after it arrived that this process must be completed by, or {@link
+	 * PCB#NO_DEADLINE} if it has none.
+	 */
+	public long getDeadline() {
+		return this.deadline;
+	}
+
+	/**
+	 * Retrieves the time on the {@link Clock} by which this process must be completed, which is its arrival time plus
+	 * its deadline. Processes that arrived at different times can only be compared by this time.
+	 *
+	 * @return The time in nanoseconds that this process must be completed by, or {@link Long#MAX_VALUE} if it has no
+	 * deadline.
+	 */
+	public synchronized long getAbsoluteDeadline() {
+		return hasDeadline() ? this.arrival + this.deadline * 1000 : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Retrieves how late this process is, compared to its deadline. Before the process terminates, this is how late it
+	 * would be if it terminated now.
+	 *
+	 * @return The time in microseconds between the deadline and the completion of this process, which is negative if
+	 * the process met its deadline, or {@code 0} if the process has no deadline.
+	 */
+	public synchronized long getLateness() {
+		return hasDeadline() ? ( getElapsedWaitTime() + getElapsedRunTime() ) / 1000 - this.deadline : 0;
+	}
+
+	/**
+	 * Checks if this process completed after its deadline, or, if it hasn't terminated yet, if it is already late.
+	 *
+	 * @return {@code true} if this process has a deadline and missed it.
+	 */
+	public boolean missedDeadline() {
+		return hasDeadline() && getLateness() > 0;
+	}
+
+	/**
+	 * Retrieves the priority class of this process, which groups {@link PCB#PRIORITY_CLASS_WIDTH} priorities together.
+	 * Higher classes are more important.
+	 *
+	 * @return The priority class of this process.
+	 */
+	public int getPriorityClass() {
+		return this.priority / PRIORITY_CLASS_WIDTH;
+	}
+
+	/**
+	 * Sets how quickly the effective priority of this process grows while it waits. This must not be changed while the
+	 * process is in a {@link ProcessQueue} ordered by {@link PCB#getAgingKey()}.
+	 *
+	 * @param agingRate The priority gained for every millisecond spent waiting, or {@code 0} to not age.
+	 */
+	public synchronized void setAgingRate( double agingRate ) {
+		if ( agingRate < 0 ) {
+			throw new IllegalArgumentException( "The aging rate can't be negative." );
+		}
+		this.agingRate = agingRate;
+	}
+
+	/**
+	 * Retrieves the priority of this process, plus what it has gained by aging since it last stopped running, or since
+	 * it was created if it hasn't run yet.
+	 *
+	 * @return The effective priority of this process.
+	 */
+	public synchronized double getEffectivePriority() {
+		if ( this.status == Status.RUNNING || this.status == Status.TERMINATED ) {
+			return this.priority;
+		}
+		return this.priority + this.agingRate * ( Clock.INSTANCE.nanoTime() - this.waitStart ) / 1000000;
+	}
+
+	/**
+	 * <p>Retrieves a key that orders waiting processes by their effective priority, highest first.</p><p>The effective
+	 * priority of a waiting process is {@code priority + rate * (now - waitStart)}. Every waiting process has the same
+	 * {@code now}, so ordering them by {@code priority - rate * waitStart} gives the same order, and this key doesn't
+	 * change while the process waits. This means that a {@link ProcessQueue} can be ordered by it.</p>
+	 *
+	 * @return The aging key of this process.
+	 */
+	public synchronized double getAgingKey() {
+		return this.priority - this.agingRate * ( this.waitStart / 1000000.0 );
+	}
+
 	/**
 	 * Sets the new status of the PCB.
 	 *
@@ -264,17 +427,46 @@ public class PCB {
 			return;
 		}
 		// System.out.println( "Process " + pid + " status set to " + status );
-		long timestamp = System.nanoTime();
+		long timestamp = Clock.INSTANCE.nanoTime();
 		long elapsedTime = timestamp - this.clock;
 		if ( this.status == Status.RUNNING ) {
 			this.elapsedRunTime += elapsedTime;
 		} else {
 			this.elapsedWaitTime += elapsedTime;
 		}
+		if ( status == Status.RUNNING && this.responseTime < 0 ) {
+			this.responseTime = this.elapsedWaitTime;
+		}
+		if ( this.status == Status.RUNNING && status != Status.RUNNING ) {
+			this.waitStart = timestamp;
+		}
 		this.status = status;
 		this.clock = timestamp;
 	}
 
+	/**
+	 * Restarts the timing of this process at the current time of the {@link Clock}, as if it had just arrived. This is
+	 * used when a run switches the Clock to logical time after the process was loaded.
+	 */
+	public synchronized void resetTimes() {
+		this.clock = Clock.INSTANCE.nanoTime();
+		this.arrival = this.clock;
+		this.waitStart = this.clock;
+		this.elapsedWaitTime = 0;
+		this.elapsedRunTime = 0;
+		this.responseTime = -1;
+	}
+
+	/**
+	 * Retrieves how long this process has had its current status. For a {@link Status#READY} process, this is how long
+	 * it has been waiting to be dispatched.
+	 *
+	 * @return The time in nanoseconds since the status of this process last changed.
+	 */
+	public synchronized long getTimeInStatus() {
+		return Clock.INSTANCE.nanoTime() - this.clock;
+	}
+
 	/**
 	 * Retrieves the elapsed amount of time that this PCB has been waiting to be run on the CPU.
 	 *
@@ -282,7 +474,7 @@ public class PCB {
 	 */
 	public synchronized long getElapsedWaitTime() {
 		return this.elapsedWaitTime + ( this.status != Status.RUNNING && this.status != Status.TERMINATED ?
-				System.nanoTime() - this.clock :
+				Clock.INSTANCE.nanoTime() - this.clock :
 				0 );
 	}
 
@@ -292,7 +484,120 @@ public class PCB {
 	 * @return the elapsed amount of time this PCB has been running on the CPU.
 	 */
 	public synchronized long getElapsedRunTime() {
-		return this.elapsedRunTime + ( this.status == Status.RUNNING ? System.nanoTime() - this.clock : 0 );
+		return this.elapsedRunTime + ( this.status == Status.RUNNING ? Clock.INSTANCE.nanoTime() - this.clock : 0 );
+	}
+
+	/**
+	 * Retrieves the response time of this process, which is the time it waited before it was first run on a CPU.
+	 *
+	 * @return The time in nanoseconds that this process waited before it first ran, or {@code -1} if it hasn't run
+	 * yet.
+	 */
+	public synchronized long getResponseTime() {
+		return this.responseTime;
+	}
+
+	/**
+	 * Retrieves the level of the Ready Queue that this process is placed in by a multilevel queue. Level {@code 0} is
+	 * the highest level.
+	 *
+	 * @return The queue level of this process.
+	 */
+	public int getQueueLevel() {
+		return this.queueLevel;
+	}
+
+	/**
+	 * Sets the level of the Ready Queue that this process is placed in by a multilevel queue.
+	 *
+	 * @param queueLevel The new queue level of this process.
+	 */
+	public void setQueueLevel( int queueLevel ) {
+		this.queueLevel = queueLevel;
+	}
+
+	/**
+	 * Retrieves the position of this process in the heap of the {@link ProcessQueue} it is in.
+	 *
+	 * @return The index of this process in its queue, or {@code -1} if it isn't in a {@link ProcessQueue}.
+	 */
+	int getQueueIndex() {
+		return this.queueIndex;
+	}
+
+	/**
+	 * Retrieves the order in which this process was added to the {@link ProcessQueue} it is in.
+	 *
+	 * @return The sequence number this process was given by its queue.
+	 */
+	long getQueueSequence() {
+		return this.queueSequence;
+	}
+
+	/**
+	 * Sets the position of this process in a {@link ProcessQueue}. This is only to be used by the queue itself.
+	 *
+	 * @param queueIndex    The index of this process in the queue's heap, or {@code -1} if it was removed.
+	 * @param queueSequence The order in which this process was added to the queue.
+	 */
+	void setQueuePosition( int queueIndex, long queueSequence ) {
+		this.queueIndex = queueIndex;
+		this.queueSequence = queueSequence;
+	}
+
+	/**
+	 * Marks the start of a new CPU burst. This is called by the CPU whenever the process is dispatched.
+	 */
+	public void startBurst() {
+		this.burstStartExecutionCount = this.executionCount;
+		this.burstStartIO = this.numIO;
+	}
+
+	/**
+	 * Retrieves the amount of instructions executed since the process was last dispatched.
+	 *
+	 * @return The length of the current or last CPU burst in instructions.
+	 */
+	public int getBurstLength() {
+		return this.executionCount - this.burstStartExecutionCount;
+	}
+
+	/**
+	 * Retrieves the amount of I/O operations performed since the process was last dispatched.
+	 *
+	 * @return The amount of I/O operations in the current or last CPU burst.
+	 */
+	public int getBurstIO() {
+		return this.numIO - this.burstStartIO;
+	}
+
+	/**
+	 * Retrieves the estimated amount of instructions this process executes in total. See {@link BurstHistory}.
+	 *
+	 * @return The estimated length of this process in instructions.
+	 */
+	public double getBurstEstimate() {
+		return this.burstEstimate;
+	}
+
+	/**
+	 * Sets the estimated amount of instructions this process executes in total. This is set by the Scheduler when the
+	 * process is loaded into RAM, and should not change while the process is in a Ready Queue.
+	 *
+	 * @param burstEstimate The estimated length of this process in instructions.
+	 */
+	public void setBurstEstimate( double burstEstimate ) {
+		this.burstEstimate = burstEstimate;
+	}
+
+	/**
+	 * Retrieves the estimated amount of instructions this process has left to execute. This is never less than {@code
+	 * 1}, even if the process has run longer than estimated.
+	 *
+	 * @return The estimated remaining length of this process in instructions.
+	 */
+	public double getRemainingBurst() {
+		return Math.max( 1, this.burstEstimate - this.executionCount );
 	}
 
 	/**
@@ -311,6 +616,16 @@ public class PCB {
 		++this.executionCount;
 	}
 
+	/**
+	 * Increases the execution count by the given amount. This is used by the CPU to record a whole batch of executed
+	 * instructions at once.
+	 *
+	 * @param count The amount of instructions that were executed.
+	 */
+	public void addExecutionCount( int count ) {
+		this.executionCount += count;
+	}
+
 	/**
 	 * <p>An enumeration of the different statuses that this process will set as. </p> <p>{@link Status#NEW}: Indicates
 	 * that the process has been created, but is not yet ready to be run.</p><p>{@link Status#READY}: Indicates that the
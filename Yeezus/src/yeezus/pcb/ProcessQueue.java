@@ -0,0 +1,211 @@
+package yeezus.pcb;
+
+import com.sun.istack.internal.NotNull;
+import com.sun.istack.internal.Nullable;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * <p>A thread safe queue of processes, ordered by a scheduling policy's {@link Comparator}. Processes that the
+ * comparator considers equal, or every process if there is no comparator, are taken in the order they were
+ * added.</p><p>The queue is an indexed binary heap: each {@link PCB} remembers where it is in the heap, so adding,
+ * taking, and removing any process are all {@code O(log n)}, and checking if a process is in the queue is {@code
+ * O(1)}. Because of this, a process can only be in one {@code ProcessQueue} at a time, and the value of the comparator
+ * for a process must not change while it is in the queue.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class ProcessQueue extends AbstractQueue<PCB> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private final Comparator<PCB> comparator;
+	private PCB[] heap = new PCB[DEFAULT_CAPACITY];
+	private int size = 0;
+	private long sequence = 0;
+
+	/**
+	 * Constructs a new First-Come, First-Served queue.
+	 */
+	public ProcessQueue() {
+		this( null );
+	}
+
+	/**
+	 * Constructs a new queue ordered by the given comparator.
+	 *
+	 * @param comparator The order of the processes, where the first process is at the front of the queue, or {@code
+	 *                   null} to take the processes in the order they were added.
+	 */
+	public ProcessQueue( @Nullable Comparator<PCB> comparator ) {
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Retrieves the order of the processes in this queue.
+	 *
+	 * @return The {@link Comparator} of this queue, or {@code null} if this is a First-Come, First-Served queue.
+	 */
+	public Comparator<PCB> getComparator() {
+		return this.comparator;
+	}
+
+	/**
+	 * Adds a process to this queue.
+	 *
+	 * @param pcb The {@link PCB} of the process.
+	 * @return {@code true}, as the queue grows as needed.
+	 * @throws IllegalStateException Thrown if the process is already in a {@code ProcessQueue}.
+	 */
+	@Override public synchronized boolean offer( @NotNull PCB pcb ) {
+		if ( pcb.getQueueIndex() >= 0 ) {
+			throw new IllegalStateException( "Process " + pcb.getPID() + " is already in a process queue." );
+		}
+		if ( this.size == this.heap.length ) {
+			this.heap = Arrays.copyOf( this.heap, this.heap.length * 2 );
+		}
+		pcb.setQueuePosition( this.size, this.sequence++ );
+		this.heap[this.size] = pcb;
+		siftUp( this.size++ );
+		return true;
+	}
+
+	@Override public synchronized PCB poll() {
+		if ( this.size == 0 ) {
+			return null;
+		}
+		PCB first = this.heap[0];
+		removeAt( 0 );
+		return first;
+	}
+
+	@Override public synchronized PCB peek() {
+		return this.heap[0];
+	}
+
+	/**
+	 * Retrieves the first processes in this queue, in the order they would be taken, without removing them. This takes
+	 * {@code O(count log count)}, no matter how many processes are in the queue.
+	 *
+	 * @param count The maximum amount of processes to retrieve.
+	 * @return A {@link List} of up to {@code count} processes from the front of this queue.
+	 */
+	public synchronized List<PCB> peek( int count ) {
+		List<PCB> first = new ArrayList<>( Math.min( count, this.size ) );
+		if ( this.size == 0 ) {
+			return first;
+		}
+		// Only the children of a process that has been taken can be the next process in order
+		PriorityQueue<Integer> frontier = new PriorityQueue<>( ( a, b ) -> compare( this.heap[a], this.heap[b] ) );
+		frontier.add( 0 );
+		while ( first.size() < count && !frontier.isEmpty() ) {
+			int i = frontier.poll();
+			first.add( this.heap[i] );
+			for ( int child = 2 * i + 1; child <= 2 * i + 2 && child < this.size; child++ ) {
+				frontier.add( child );
+			}
+		}
+		return first;
+	}
+
+	@Override public synchronized boolean remove( Object o ) {
+		if ( !contains( o ) ) {
+			return false;
+		}
+		removeAt( ( (PCB) o ).getQueueIndex() );
+		return true;
+	}
+
+	@Override public synchronized boolean contains( Object o ) {
+		if ( !( o instanceof PCB ) ) {
+			return false;
+		}
+		int i = ( (PCB) o ).getQueueIndex();
+		return i >= 0 && i < this.size && this.heap[i] == o;
+	}
+
+	@Override public synchronized int size() {
+		return this.size;
+	}
+
+	@Override public synchronized void clear() {
+		for ( int i = 0; i < this.size; i++ ) {
+			this.heap[i].setQueuePosition( -1, 0 );
+			this.heap[i] = null;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * Iterates over a copy of the processes in this queue. The processes are <b>not</b> in the order they would be
+	 * taken from the queue, and removing processes through the iterator is not supported.
+	 *
+	 * @return An iterator over the processes in this queue.
+	 */
+	@Override public synchronized Iterator<PCB> iterator() {
+		return Collections.unmodifiableList( Arrays.asList( Arrays.copyOf( this.heap, this.size ) ) ).iterator();
+	}
+
+	private void removeAt( int i ) {
+		PCB removed = this.heap[i];
+		PCB last = this.heap[--this.size];
+		this.heap[this.size] = null;
+		removed.setQueuePosition( -1, 0 );
+		if ( i != this.size ) {
+			this.heap[i] = last;
+			last.setQueuePosition( i, last.getQueueSequence() );
+			siftDown( i );
+			if ( this.heap[i] == last ) {
+				siftUp( i );
+			}
+		}
+	}
+
+	private void siftUp( int i ) {
+		PCB pcb = this.heap[i];
+		while ( i > 0 ) {
+			int parent = ( i - 1 ) >>> 1;
+			if ( compare( pcb, this.heap[parent] ) >= 0 ) {
+				break;
+			}
+			move( this.heap[parent], i );
+			i = parent;
+		}
+		move( pcb, i );
+	}
+
+	private void siftDown( int i ) {
+		PCB pcb = this.heap[i];
+		int half = this.size >>> 1;
+		while ( i < half ) {
+			int child = 2 * i + 1;
+			if ( child + 1 < this.size && compare( this.heap[child + 1], this.heap[child] ) < 0 ) {
+				child++;
+			}
+			if ( compare( pcb, this.heap[child] ) <= 0 ) {
+				break;
+			}
+			move( this.heap[child], i );
+			i = child;
+		}
+		move( pcb, i );
+	}
+
+	private void move( PCB pcb, int i ) {
+		this.heap[i] = pcb;
+		pcb.setQueuePosition( i, pcb.getQueueSequence() );
+	}
+
+	private int compare( PCB a, PCB b ) {
+		int compare = this.comparator == null ? 0 : this.comparator.compare( a, b );
+		return compare != 0 ? compare : Long.compare( a.getQueueSequence(), b.getQueueSequence() );
+	}
+}
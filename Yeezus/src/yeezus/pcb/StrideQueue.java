@@ -0,0 +1,210 @@
+package yeezus.pcb;
+
+import com.sun.istack.internal.NotNull;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <p>A Ready Queue that shares the CPUs between groups of processes in proportion to the tickets each group holds,
+ * using stride scheduling. Each group has a First-Come, First-Served queue of its own.</p><p>Every group has a stride,
+ * which is inversely proportional to its tickets, and a pass value. Processes are always taken from the group with the
+ * lowest pass, and when one of its processes stops running, the group's pass is advanced by its stride for every
+ * instruction the process executed. Over time, the instructions executed by each group converge to its share of the
+ * tickets. A group that had nothing to run or running doesn't save up its unused share: when it becomes ready again,
+ * its pass is moved up to the lowest pass of the other ready groups.</p><p>A process that is put back in the queue,
+ * because it was preempted, is charged automatically. A process that terminates must be charged with {@link
+ * StrideQueue#charge(PCB)}.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class StrideQueue extends AbstractQueue<PCB> {
+
+	/**
+	 * The amount of tickets held by a group unless it is changed with {@link StrideQueue#setTickets(int, int)}.
+	 */
+	public static final int DEFAULT_TICKETS = 100;
+
+	private static final long STRIDE_1 = 1 << 20;
+
+	private final Map<Integer, Group> groups = new TreeMap<>();
+	private int size = 0;
+
+	/**
+	 * Sets the amount of tickets held by a group.
+	 *
+	 * @param group   The ID of the group.
+	 * @param tickets The amount of tickets held by the group.
+	 */
+	public synchronized void setTickets( int group, int tickets ) {
+		if ( tickets <= 0 ) {
+			throw new IllegalArgumentException( "A group must hold at least one ticket." );
+		}
+		getGroup( group ).tickets = tickets;
+	}
+
+	/**
+	 * Retrieves the amount of tickets held by a group.
+	 *
+	 * @param group The ID of the group.
+	 * @return The amount of tickets held by the group.
+	 */
+	public synchronized int getTickets( int group ) {
+		Group state = this.groups.get( group );
+		return state == null ? DEFAULT_TICKETS : state.tickets;
+	}
+
+	/**
+	 * Charges the group of a process for the instructions it executed since it was taken from this queue. A process is
+	 * only charged once each time it is taken, so this can safely be called more than once.
+	 *
+	 * @param pcb The {@link PCB} of the process that stopped running.
+	 */
+	public synchronized void charge( @NotNull PCB pcb ) {
+		Group group = getGroup( pcb.getGroup() );
+		if ( !group.dispatched.remove( pcb ) ) {
+			return;
+		}
+		int used = pcb.getBurstLength();
+		group.pass += group.getStride() * used;
+		group.usage += used;
+	}
+
+	/**
+	 * Retrieves the fraction of the charged instructions that each group has executed.
+	 *
+	 * @return A {@link Map} from each group's ID to its achieved share, between {@code 0} and {@code 1}.
+	 */
+	public synchronized Map<Integer, Double> getShares() {
+		long total = 0;
+		for ( Group group : this.groups.values() ) {
+			total += group.usage;
+		}
+		Map<Integer, Double> shares = new TreeMap<>();
+		for ( Map.Entry<Integer, Group> group : this.groups.entrySet() ) {
+			shares.put( group.getKey(), total == 0 ? 0 : (double) group.getValue().usage / total );
+		}
+		return shares;
+	}
+
+	/**
+	 * Retrieves the fraction of the tickets that each group holds, which is the share it should achieve.
+	 *
+	 * @return A {@link Map} from each group's ID to its target share, between {@code 0} and {@code 1}.
+	 */
+	public synchronized Map<Integer, Double> getTargetShares() {
+		long total = 0;
+		for ( Group group : this.groups.values() ) {
+			total += group.tickets;
+		}
+		Map<Integer, Double> shares = new TreeMap<>();
+		for ( Map.Entry<Integer, Group> group : this.groups.entrySet() ) {
+			shares.put( group.getKey(), (double) group.getValue().tickets / total );
+		}
+		return shares;
+	}
+
+	@Override public synchronized boolean offer( @NotNull PCB pcb ) {
+		Group group = getGroup( pcb.getGroup() );
+		if ( group.dispatched.contains( pcb ) ) {
+			// The process was preempted
+			charge( pcb );
+		} else if ( group.queue.isEmpty() && group.dispatched.isEmpty() ) {
+			// The group was idle, so it can't have more credit than the groups that were waiting
+			long lowestPass = lowestPass();
+			if ( lowestPass != Long.MAX_VALUE ) {
+				group.pass = Math.max( group.pass, lowestPass );
+			}
+		}
+		group.queue.add( pcb );
+		this.size++;
+		return true;
+	}
+
+	@Override public synchronized PCB poll() {
+		Group next = nextGroup();
+		if ( next == null ) {
+			return null;
+		}
+		this.size--;
+		PCB pcb = next.queue.poll();
+		next.dispatched.add( pcb );
+		return pcb;
+	}
+
+	@Override public synchronized PCB peek() {
+		Group next = nextGroup();
+		return next == null ? null : next.queue.peek();
+	}
+
+	@Override public synchronized int size() {
+		return this.size;
+	}
+
+	@Override public synchronized void clear() {
+		for ( Group group : this.groups.values() ) {
+			group.queue.clear();
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * Iterates over a copy of the processes in this queue, group by group. Removing processes through the iterator is
+	 * not supported.
+	 *
+	 * @return An iterator over the processes in this queue.
+	 */
+	@Override public synchronized Iterator<PCB> iterator() {
+		List<PCB> processes = new ArrayList<>();
+		for ( Group group : this.groups.values() ) {
+			processes.addAll( group.queue );
+		}
+		return Collections.unmodifiableList( processes ).iterator();
+	}
+
+	private Group nextGroup() {
+		Group next = null;
+		for ( Group group : this.groups.values() ) {
+			if ( !group.queue.isEmpty() && ( next == null || group.pass < next.pass ) ) {
+				next = group;
+			}
+		}
+		return next;
+	}
+
+	private long lowestPass() {
+		long lowest = Long.MAX_VALUE;
+		for ( Group group : this.groups.values() ) {
+			if ( !group.queue.isEmpty() ) {
+				lowest = Math.min( lowest, group.pass );
+			}
+		}
+		return lowest;
+	}
+
+	private Group getGroup( int id ) {
+		return this.groups.computeIfAbsent( id, g -> new Group() );
+	}
+
+	private static class Group {
+
+		private final Queue<PCB> queue = new ArrayDeque<>();
+		private final Set<PCB> dispatched = new HashSet<>();
+		private int tickets = DEFAULT_TICKETS;
+		private long pass = 0, usage = 0;
+
+		private long getStride() {
+			return STRIDE_1 / this.tickets;
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package yeezus.pcb;
 
+import com.sun.istack.internal.NotNull;
+import com.sun.istack.internal.Nullable;
 import yeezus.DuplicateIDException;
 import yeezus.driver.Loader;
 
@@ -17,9 +19,10 @@ import java.util.function.Consumer;
  * ready to go are both instantiated and maintained within this Task Manager. The Job Queue can be retrieved using the
  * {@link TaskManager#getJobQueue()} method while the Ready Queue can be retrieved with the {@link
  * TaskManager#getReadyQueue()} method.</p><p>While all of the methods contained in this class are thread safe, the
- * {@link List}s that contain the Job Queue and the all of the {@link PCB}s are not, and they are returned as clones;
- * any changes to them will not be reflected in the original, and they should be used for reading only. The Ready Queue,
- * however, is thread safe, and can be edited outside of this class.</p>
+ * {@link List} that contains all of the {@link PCB}s is not, and it is returned as a clone; any changes to it will not
+ * be reflected in the original, and it should be used for reading only. The Job and Ready Queues, however, are thread
+ * safe, and can be edited outside of this class. Processes are looked up by PID through a {@link Map}, so retrieving
+ * a {@link PCB} does not depend on the amount of processes.</p>
  *
  * @author Mark Zeagler
  * @version 2.0
@@ -32,8 +35,9 @@ public enum TaskManager implements Iterable<PCB> {
 	INSTANCE; // https://stackoverflow.com/questions/70689/what-is-an-efficient-way-to-implement-a-singleton-pattern-in-java
 
 	private final List<PCB> PCBs = new ArrayList<>();
-	private final List<PCB> jobQueue = Collections.synchronizedList( new ArrayList<PCB>() );
-	private final Queue<PCB> readyQueue = new ConcurrentLinkedQueue<>();
+	private final Map<Integer, PCB> pids = new HashMap<>();
+	private ProcessQueue jobQueue = new ProcessQueue();
+	private Queue<PCB> readyQueue = new ConcurrentLinkedQueue<>();
 
 	/**
 	 * <p>Retrieves the Ready Queue for the system. The Ready Queue is a {@link Queue} of all {@link PCB}s associated
@@ -49,6 +53,38 @@ public enum TaskManager implements Iterable<PCB> {
 		return this.readyQueue;
 	}
 
+	/**
+	 * Replaces the Ready Queue with the given {@link Queue}, so that the Ready Queue can order its processes by the
+	 * current scheduling policy. The new queue must be thread safe. This should only be done before the system starts
+	 * running, and {@link TaskManager#reset()} restores the default First-Come, First-Served queue. The processes that
+	 * are already ready are moved to the new queue.
+	 *
+	 * @param readyQueue The new Ready Queue.
+	 */
+	public synchronized void setReadyQueue( @NotNull Queue<PCB> readyQueue ) {
+		// Each process has to leave the old queue first, since a process can only be in one ProcessQueue at a time
+		for ( PCB pcb = this.readyQueue.poll(); pcb != null; pcb = this.readyQueue.poll() ) {
+			readyQueue.add( pcb );
+		}
+		this.readyQueue = readyQueue;
+	}
+
+	/**
+	 * Orders the Job Queue with the given {@link Comparator}, so that the first job to be loaded is always at the front
+	 * of the queue. This should only be done before the system starts running, after the comparator's values for the
+	 * jobs have been set. {@link TaskManager#reset()} restores the default First-Come, First-Served order.
+	 *
+	 * @param comparator The order of the jobs, or {@code null} to load them in the order they were added.
+	 */
+	public synchronized void setJobOrder( @Nullable Comparator<PCB> comparator ) {
+		ProcessQueue jobQueue = new ProcessQueue( comparator );
+		PCB pcb;
+		while ( ( pcb = this.jobQueue.poll() ) != null ) {
+			jobQueue.add( pcb );
+		}
+		this.jobQueue = jobQueue;
+	}
+
 	/**
 	 * Adds a {@link PCB} with the following attributes.
 	 *
@@ -63,12 +99,54 @@ public enum TaskManager implements Iterable<PCB> {
 	public synchronized void addPCB( int pid, int startDiskInstructionAddress, int instructionsLength,
 			int inputBufferLength, int outputBufferLength, int tempBufferLength, int priority )
 			throws DuplicateIDException {
+		addPCB( pid, startDiskInstructionAddress, instructionsLength, inputBufferLength, outputBufferLength,
+				tempBufferLength, priority, PCB.NO_DEADLINE );
+	}
+
+	/**
+	 * Adds a {@link PCB} with the following attributes and a completion deadline.
+	 *
+	 * @param pid                         The PCB ID of the new process.
+	 * @param startDiskInstructionAddress The start address of the Instructions on the disk.
+	 * @param instructionsLength          The amount of Instructions on the disk.
+	 * @param inputBufferLength           The length of the Input Buffer on the disk.
+	 * @param outputBufferLength          The length of the Output Buffer on the disk.
+	 * @param tempBufferLength            The length of the Temp Buffer on the disk.
+	 * @param priority                    The given priority of the process.
+	 * @param deadline                    The time in microseconds after it arrives that the process must be completed
+	 *                                    by, or {@link PCB#NO_DEADLINE}.
+	 */
+	public synchronized void addPCB( int pid, int startDiskInstructionAddress, int instructionsLength,
+			int inputBufferLength, int outputBufferLength, int tempBufferLength, int priority, long deadline )
+			throws DuplicateIDException {
+		addPCB( pid, startDiskInstructionAddress, instructionsLength, inputBufferLength, outputBufferLength,
+				tempBufferLength, priority, deadline, 0 );
+	}
+
+	/**
+	 * Adds a {@link PCB} with the following attributes, a completion deadline, and a group.
+	 *
+	 * @param pid                         The PCB ID of the new process.
+	 * @param startDiskInstructionAddress The start address of the Instructions on the disk.
+	 * @param instructionsLength          The amount of Instructions on the disk.
+	 * @param inputBufferLength           The length of the Input Buffer on the disk.
+	 * @param outputBufferLength          The length of the Output Buffer on the disk.
+	 * @param tempBufferLength            The length of the Temp Buffer on the disk.
+	 * @param priority                    The given priority of the process.
+	 * @param deadline                    The time in microseconds after it arrives that the process must be completed
+	 *                                    by, or {@link PCB#NO_DEADLINE}.
+	 * @param group                       The ID of the group that the process belongs to.
+	 */
+	public synchronized void addPCB( int pid, int startDiskInstructionAddress, int instructionsLength,
+			int inputBufferLength, int outputBufferLength, int tempBufferLength, int priority, long deadline,
+			int group ) throws DuplicateIDException {
 		if ( this.contains( pid ) ) {
 			throw new DuplicateIDException( "The PID " + pid + " already exists in this TaskManager." );
 		}
 		PCB pcb = new PCB( pid, startDiskInstructionAddress, instructionsLength, inputBufferLength, outputBufferLength,
-				tempBufferLength, priority );
+				tempBufferLength, priority, deadline, group );
 		this.PCBs.add( pcb );
+		this.pids.put( pid, pcb );
 		this.jobQueue.add( pcb );
 	}
 
@@ -83,12 +161,7 @@ public enum TaskManager implements Iterable<PCB> {
 	 * doesn't.
 	 */
 	public synchronized boolean contains( int pid ) {
-		for ( PCB PCB : this.PCBs ) {
-			if ( PCB.getPID() == pid ) {
-				return true;
-			}
-		}
-		return false;
+		return this.pids.containsKey( pid );
 	}
 
 	/**
@@ -99,10 +172,9 @@ public enum TaskManager implements Iterable<PCB> {
 	 * @throws ProcessNotFoundException Thrown if the pid is not contained within the task manager
 	 */
 	public synchronized PCB getPCB( int pid ) throws ProcessNotFoundException {
-		for ( PCB PCB : this.PCBs ) {
-			if ( PCB.getPID() == pid ) {
-				return PCB;
-			}
+		PCB pcb = this.pids.get( pid );
+		if ( pcb != null ) {
+			return pcb;
 		}
 		throw new ProcessNotFoundException( "The pid " + pid + " does not exist within the TaskManager." );
 	}
@@ -125,31 +197,33 @@ public enum TaskManager implements Iterable<PCB> {
 	 *
 	 * @return The number of {@link PCB}s in this task manager.
 	 */
-	public int size() {
+	public synchronized int size() {
 		return this.PCBs.size();
 	}
 
 	/**
-	 * <p>Retrieves the Job Queue from the Task Manager.</p><p>The Job Queue is the list of all processes that have not
-	 * yet run. For a list of all {@link PCB}s of all processes, including those that have not yet completed, those that
-	 * are currently running, and those that have already been completed, use {@link TaskManager#getPCBs()}. For {@link
-	 * PCB}s of processes that are ready to be run, use {@link TaskManager#getReadyQueue()}.</p><p><b>NOTE:</b> {@link
-	 * List} is not synchronized, so the returned list is a clone of the original, not the original itself. Changes made
-	 * to the cloned object will not be reflected in the original.</p>
+	 * <p>Retrieves the Job Queue from the Task Manager.</p><p>The Job Queue is the queue of all processes that have not
+	 * yet been loaded into RAM. For a list of all {@link PCB}s of all processes, including those that have not yet
+	 * completed, those that are currently running, and those that have already been completed, use {@link
+	 * TaskManager#getPCBs()}. For {@link PCB}s of processes that are ready to be run, use {@link
+	 * TaskManager#getReadyQueue()}.</p>
 	 *
-	 * @return A cloned {@link List} of all {@link PCB}s whose processes have not yet been completed within the system.
+	 * @return A {@link ProcessQueue} of all {@link PCB}s whose processes have not yet been loaded into RAM, ordered by
+	 * {@link TaskManager#setJobOrder(Comparator)}.
 	 */
-	public List<PCB> getJobQueue() {
+	public ProcessQueue getJobQueue() {
 		return this.jobQueue;
 	}
 
 	/**
 	 * Resets this class to its default state, clearing all of the data in the process.
 	 */
-	public void reset() {
+	public synchronized void reset() {
 		this.jobQueue.clear();
+		this.jobQueue = new ProcessQueue();
 		this.PCBs.clear();
-		this.readyQueue.clear();
+		this.pids.clear();
+		this.readyQueue = new ConcurrentLinkedQueue<>();
 	}
 
 	@Override public void forEach( Consumer<? super PCB> action ) {
@@ -162,13 +236,13 @@ public enum TaskManager implements Iterable<PCB> {
 			private int i = 0;
 
 			@Override public void forEachRemaining( Consumer<? super PCB> action ) {
-				for ( ; this.i < TaskManager.INSTANCE.getPCBs().size(); this.i++ ) {
+				for ( ; this.i < TaskManager.INSTANCE.size(); this.i++ ) {
 					action.accept( TaskManager.INSTANCE.getPCB( i ) );
 				}
 			}
 
 			@Override public boolean hasNext() {
-				return this.i < TaskManager.INSTANCE.getPCBs().size();
+				return this.i < TaskManager.INSTANCE.size();
 			}
 
 			@Override public PCB next() {
@@ -4,17 +4,27 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import yeezus.cpu.Test_Decoder;
 import yeezus.cpu.Test_InstructionSet;
+import yeezus.cpu.Test_InterruptController;
+import yeezus.cpu.Test_TraceBuffer;
 import yeezus.driver.Test_Dispatcher;
 import yeezus.driver.Test_Driver;
+import yeezus.driver.Test_LoadBalancer;
 import yeezus.driver.Test_Loader;
 import yeezus.driver.Test_Scheduler;
 import yeezus.memory.Test_MMU;
 import yeezus.memory.Test_Memory;
+import yeezus.memory.Test_TransferBuffer;
 import yeezus.memory.Test_Word;
+import yeezus.pcb.Test_MultilevelFeedbackQueue;
 import yeezus.pcb.Test_PCB;
+import yeezus.pcb.Test_ProcessQueue;
+import yeezus.pcb.Test_StrideQueue;
 import yeezus.pcb.Test_TaskManager;
 
 @RunWith( Suite.class ) @Suite.SuiteClasses( { Test_File.class, Test_InstructionSet.class, Test_Memory.class,
 		Test_TaskManager.class, Test_PCB.class, Test_Decoder.class, Test_Word.class, Test_Loader.class,
-		Test_Scheduler.class, Test_Dispatcher.class, Test_MMU.class, Test_Driver.class } ) public class Test_All {
+		Test_Scheduler.class, Test_Dispatcher.class, Test_MMU.class, Test_Driver.class, Test_TraceBuffer.class,
+		Test_MultilevelFeedbackQueue.class, Test_ProcessQueue.class, Test_StrideQueue.class, Test_TransferBuffer.class,
+		Test_Histogram.class, Test_InterruptController.class, Test_LoadBalancer.class,
+		Test_IdleStrategy.class } ) public class Test_All {
 }
@@ -0,0 +1,38 @@
+package yeezus;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class Test_Histogram {
+
+	@Test public void buckets() {
+		assertEquals( 0, Histogram.bucket( 0 ) );
+		assertEquals( 1, Histogram.bucket( 1 ) );
+		assertEquals( 2, Histogram.bucket( 2 ) );
+		assertEquals( 2, Histogram.bucket( 3 ) );
+		assertEquals( 3, Histogram.bucket( 4 ) );
+		assertEquals( 63, Histogram.bucket( Long.MAX_VALUE ) );
+	}
+
+	@Test public void summary() {
+		Histogram histogram = new Histogram();
+		for ( int i = 1; i <= 100; i++ ) {
+			histogram.record( i );
+		}
+		histogram.record( -5 );
+		assertEquals( 101, histogram.getCount() );
+		assertEquals( 1, histogram.getBucketCount( 0 ) );
+		assertEquals( 32, histogram.getBucketCount( 6 ) );
+		assertEquals( 5050 / 101.0, histogram.getMean(), 0.0001 );
+		assertEquals( 100, histogram.getMax() );
+		// The median, 50, is counted in the bucket from 32 to 63
+		assertEquals( 63, histogram.getPercentile( 50 ) );
+		assertEquals( 100, histogram.getPercentile( 100 ) );
+
+		Histogram small = new Histogram();
+		small.record( 0 );
+		small.record( 5 );
+		assertEquals( "0: 1\n[4, 7]: 1\n", small.toString() );
+	}
+}
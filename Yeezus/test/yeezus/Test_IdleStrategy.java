@@ -0,0 +1,37 @@
+package yeezus;
+
+import org.junit.Test;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class Test_IdleStrategy {
+
+	@Test public void blockReturnsOnWakeUp() {
+		// A wake up before the wait leaves a permit, so the wait returns at once
+		LockSupport.unpark( Thread.currentThread() );
+		IdleStrategy.BLOCK.idle( 0 );
+		assertTrue( IdleStrategy.BLOCK.isBlocking() );
+	}
+
+	@Test public void sleepIgnoresWakeUps() {
+		LockSupport.unpark( Thread.currentThread() );
+		long start = System.nanoTime();
+		IdleStrategy.SLEEP.idle( 0 );
+		assertTrue( System.nanoTime() - start >= IdleStrategy.SLEEP_NANOS );
+		assertFalse( IdleStrategy.SLEEP.isBlocking() );
+	}
+
+	@Test public void backoff() {
+		// Spinning returns at once, and parking is bounded
+		long start = System.nanoTime();
+		for ( int attempts = 0; attempts < IdleStrategy.BACKOFF_SPINS + IdleStrategy.BACKOFF_YIELDS + 4; attempts++ ) {
+			IdleStrategy.BACKOFF.idle( attempts );
+		}
+		IdleStrategy.BACKOFF.idle( Integer.MAX_VALUE );
+		assertTrue( System.nanoTime() - start < 1000 * IdleStrategy.BACKOFF_MAX_PARK_NANOS );
+		assertFalse( IdleStrategy.BACKOFF.isBlocking() );
+	}
+}
@@ -0,0 +1,53 @@
+package yeezus.cpu;
+
+import yeezus.memory.MMU;
+import yeezus.memory.Memory;
+import yeezus.memory.Word;
+import yeezus.pcb.PCB;
+import yeezus.pcb.TaskManager;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * <p>Measures how many instructions a single CPU executes per second while it runs a tight loop without tracing. This
+ * isn't part of {@link yeezus.Test_All}, and is run on its own with {@code java yeezus.cpu.Benchmark_CPU
+ * [rounds]}.</p><p>Each round runs the loop on a new CPU and prints its rate. The first rounds include the JIT warming
+ * up, so the later rounds are the ones to compare.</p>
+ *
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class Benchmark_CPU {
+
+	// A loop of four instructions that runs about two million times, then halts
+	private static final String[] LOOP = { "0x4B01FFFF", "0x4D010040", "0x4B020001", "0x06121000", "0x5810000C",
+			"0x92000000" };
+
+	public static void main( String[] args ) throws Exception {
+		int rounds = args.length > 0 ? Integer.parseInt( args[0] ) : 5;
+		for ( int round = 0; round < rounds; round++ ) {
+			TaskManager.INSTANCE.reset();
+			CPU.reset();
+			MMU mmu = new MMU( new Memory( 64 ) );
+			CPU cpu = new CPU( 0, mmu, 16, 16 );
+			cpu.setTraceLevel( TraceLevel.OFF );
+			TaskManager.INSTANCE.addPCB( 1, 0, LOOP.length, 0, 0, 0, 1 );
+			PCB pcb = TaskManager.INSTANCE.getPCB( 1 );
+			mmu.mapMemory( pcb );
+			for ( int i = 0; i < LOOP.length; i++ ) {
+				mmu.write( pcb, i, new Word( LOOP[i] ) );
+			}
+			CountDownLatch halted = new CountDownLatch( 1 );
+			cpu.setProcessListener( process -> halted.countDown() );
+			cpu.setProcess( pcb );
+			long start = System.nanoTime();
+			new Thread( cpu ).start();
+			halted.await();
+			long elapsed = System.nanoTime() - start;
+			cpu.signalShutdown();
+			cpu.awaitShutdown();
+			System.out.printf( "Round %d: %d instructions at %.1fM instructions per second%n", round,
+					pcb.getExecutionCount(), pcb.getExecutionCount() * 1000.0 / elapsed );
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package yeezus.cpu;
+
+import org.junit.After;
+import org.junit.Test;
+import yeezus.memory.MMU;
+import yeezus.memory.Memory;
+import yeezus.pcb.PCB;
+import yeezus.pcb.TaskManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class Test_InterruptController {
+
+	@After public void tearDown() {
+		TaskManager.INSTANCE.reset();
+		CPU.reset();
+	}
+
+	@Test public void handleOnce() throws Exception {
+		InterruptController interrupts = new CPU( 0, new MMU( new Memory( 1024 ) ), 16, 100 ).getInterruptController();
+		TaskManager.INSTANCE.addPCB( 1, 0, 10, 0, 0, 0, 1 );
+		TaskManager.INSTANCE.addPCB( 2, 10, 10, 0, 0, 0, 1 );
+		PCB first = TaskManager.INSTANCE.getPCB( 1 ), second = TaskManager.INSTANCE.getPCB( 2 );
+		List<PCB> completed = new ArrayList<>();
+		interrupts.setHandler( Interrupt.IO_COMPLETION, completed::add );
+		assertFalse( interrupts.isPending() );
+
+		// Both raises share one bit, but the handler is called for each process
+		interrupts.raise( Interrupt.IO_COMPLETION, first );
+		interrupts.raise( Interrupt.IO_COMPLETION, second );
+		interrupts.raise( Interrupt.PAGE_FAULT, second );
+		assertTrue( interrupts.isPending() );
+		assertEquals( Interrupt.IO_COMPLETION.mask() | Interrupt.PAGE_FAULT.mask(), interrupts.handle() );
+		assertFalse( interrupts.isPending() );
+		assertEquals( 2, completed.size() );
+		assertSame( first, completed.get( 0 ) );
+		assertEquals( 1, interrupts.getLatencies( Interrupt.IO_COMPLETION ).getCount() );
+		assertEquals( 1, interrupts.getLatencies( Interrupt.PAGE_FAULT ).getCount() );
+		assertEquals( 0, interrupts.getLatencies( Interrupt.TIMER ).getCount() );
+
+		// Nothing is left to handle
+		assertEquals( 0, interrupts.handle() );
+		assertEquals( 2, completed.size() );
+	}
+}
@@ -0,0 +1,104 @@
+package yeezus.cpu;
+
+import org.junit.After;
+import org.junit.Test;
+import yeezus.memory.MMU;
+import yeezus.memory.Memory;
+import yeezus.memory.Word;
+import yeezus.pcb.PCB;
+import yeezus.pcb.TaskManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class Test_TraceBuffer {
+
+	@After public void tearDown() {
+		TaskManager.INSTANCE.reset();
+		CPU.reset();
+	}
+
+	@Test public void record() {
+		TraceBuffer trace = new TraceBuffer( 4 );
+		trace.record( 1, 0, InstructionSet.MOVI.getCode(), 5, 0x2A );
+		trace.record( 1, 1, InstructionSet.ST.getCode(), TraceBuffer.NO_REGISTER, 0 );
+		assertEquals( 2, trace.size() );
+		assertEquals( "PID: 1\tPC: 1\tInstruction: ST", trace.format( 0 ) );
+		assertEquals( "PID: 1\tPC: 0\tInstruction: MOVI\tRegister 5: 0x0000002A", trace.format( 1 ) );
+	}
+
+	@Test public void wrapAround() {
+		TraceBuffer trace = new TraceBuffer( 3 );
+		for ( int pc = 0; pc < 5; pc++ ) {
+			trace.record( 2, pc, InstructionSet.NOP.getCode(), TraceBuffer.NO_REGISTER, 0 );
+		}
+		assertEquals( 3, trace.size() );
+		assertEquals( "PID: 2\tPC: 4\tInstruction: NOP", trace.format( 0 ) );
+		assertEquals( "PID: 2\tPC: 2\tInstruction: NOP", trace.format( 2 ) );
+	}
+
+	@Test( expected = IndexOutOfBoundsException.class ) public void clear() {
+		TraceBuffer trace = new TraceBuffer( 3 );
+		trace.record( 3, 0, InstructionSet.NOP.getCode(), TraceBuffer.NO_REGISTER, 0 );
+		trace.clear();
+		assertEquals( 0, trace.size() );
+		trace.format( 0 );
+	}
+
+	@Test public void traceLevels() throws Exception {
+		assertEquals( 12, runTraced( TraceLevel.FULL, null ) );
+		assertEquals( 0, runTraced( TraceLevel.ERROR, null ) );
+		assertEquals( 0, runTraced( TraceLevel.OFF, null ) );
+		// The level of a process overrides the level of the CPU
+		assertEquals( 12, runTraced( TraceLevel.OFF, TraceLevel.FULL ) );
+		assertEquals( 0, runTraced( TraceLevel.FULL, TraceLevel.OFF ) );
+	}
+
+	@Test public void sampling() throws Exception {
+		// Every 4th of the 12 instructions is recorded
+		assertEquals( 3, runTraced( TraceLevel.SAMPLED, null, 4, false ) );
+		assertEquals( 12, runTraced( TraceLevel.SAMPLED, null, 1, false ) );
+		// After the 4th instruction, random samples are 1 to 7 instructions apart
+		int samples = runTraced( TraceLevel.SAMPLED, null, 4, true );
+		assertTrue( samples >= 2 && samples <= 9 );
+	}
+
+	private int runTraced( TraceLevel cpuLevel, TraceLevel processLevel ) throws Exception {
+		return runTraced( cpuLevel, processLevel, 16, false );
+	}
+
+	// Runs the first 12 of 20 NOPs on a CPU, and returns the amount of instructions recorded in its trace
+	private int runTraced( TraceLevel cpuLevel, TraceLevel processLevel, int interval, boolean random )
+			throws Exception {
+		tearDown();
+		MMU mmu = new MMU( new Memory( 1024 ) );
+		CPU cpu = new CPU( 0, mmu, 16, 100 );
+		TaskManager.INSTANCE.addPCB( 1, 0, 21, 0, 0, 0, 1 );
+		PCB pcb = TaskManager.INSTANCE.getPCB( 1 );
+		mmu.mapMemory( pcb );
+		for ( int i = 0; i < 20; i++ ) {
+			mmu.write( pcb, i, new Word( "0x13000000" ) ); // NOP
+		}
+		mmu.write( pcb, 20, new Word( "0x92000000" ) ); // HLT
+		cpu.setTraceLevel( cpuLevel );
+		cpu.setTraceLevel( 1, processLevel );
+		cpu.setSampling( interval, random );
+		// The process is preempted before it halts, which would clear the trace
+		CountDownLatch stopped = new CountDownLatch( 1 );
+		cpu.setProcessListener( process -> stopped.countDown() );
+		cpu.setProcess( pcb, 12 );
+		new Thread( cpu ).start();
+		assertTrue( stopped.await( 10, TimeUnit.SECONDS ) );
+		cpu.signalShutdown();
+		cpu.awaitShutdown();
+		assertEquals( PCB.Status.READY, pcb.getStatus() );
+		return cpu.getTrace().size();
+	}
+}
@@ -3,14 +3,16 @@ package yeezus.driver;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import yeezus.Clock;
 import yeezus.cpu.CPU;
 import yeezus.memory.MMU;
 import yeezus.memory.Memory;
 import yeezus.memory.Word;
 import yeezus.pcb.PCB;
+import yeezus.pcb.ProcessQueue;
 import yeezus.pcb.TaskManager;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class Test_Dispatcher {
 
@@ -62,6 +64,44 @@ public class Test_Dispatcher {
 		}
 	}
 
+	@Test public void testAffinityWait() {
+		Clock.INSTANCE.setLogical( true );
+		try {
+			CPU[] cpus = { new CPU( 1, this.mmu, 16, 100 ), new CPU( 2, this.mmu, 16, 100 ) };
+			this.taskManager.setReadyQueue( new ProcessQueue() );
+			Dispatcher dispatcher = new Dispatcher( this.taskManager, cpus, this.mmu, CPUSchedulingPolicy.RoundRobin );
+			dispatcher.setAffinityWait( 100 );
+			this.taskManager.addPCB( 2, 0, 10, 0, 0, 0, 1 );
+			this.taskManager.addPCB( 3, 0, 10, 0, 0, 0, 1 );
+			PCB running = this.taskManager.getPCB( 2 ), waiting = this.taskManager.getPCB( 3 );
+			this.mmu.mapMemory( running );
+			this.mmu.mapMemory( waiting );
+			this.taskManager.getJobQueue().remove( running );
+			cpus[0].setProcess( running );
+			// The waiting process last ran on the first CPU, which is busy, while the second CPU is free
+			waiting.setCPUID( 1 );
+			waiting.setStatus( PCB.Status.READY );
+			this.taskManager.getJobQueue().remove( waiting );
+			this.taskManager.getReadyQueue().add( waiting );
+
+			dispatcher.run();
+			assertNull( cpus[1].getProcess() );
+			assertTrue( dispatcher.hasDeferred() );
+			Clock.INSTANCE.advanceTo( 99 );
+			dispatcher.run();
+			assertNull( cpus[1].getProcess() );
+
+			// Once it has waited for the affinity wait, it gives up on its CPU
+			Clock.INSTANCE.advanceTo( 100 );
+			dispatcher.run();
+			assertSame( waiting, cpus[1].getProcess() );
+			assertSame( running, cpus[0].getProcess() );
+			assertFalse( dispatcher.hasDeferred() );
+		} finally {
+			Clock.INSTANCE.setLogical( false );
+		}
+	}
+
 	// Add another process to the ready queue, and check that the two are swapped
 	public void testSwap() { // TODO Re-enable when we actually need to swap
 		// Run several cycles to increment counter
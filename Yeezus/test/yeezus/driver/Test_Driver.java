@@ -1,17 +1,29 @@
 package yeezus.driver;
 
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
+import yeezus.Clock;
+import yeezus.IdleStrategy;
 import yeezus.cpu.CPU;
+import yeezus.cpu.DMAQueuePolicy;
+import yeezus.cpu.Interrupt;
+import yeezus.memory.MMU;
 import yeezus.memory.Memory;
+import yeezus.memory.Word;
+import yeezus.pcb.BurstHistory;
+import yeezus.pcb.PCB;
 import yeezus.pcb.TaskManager;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
 import java.net.URLDecoder;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -103,4 +115,407 @@ public class Test_Driver {
 		}
 		fail();
 	}
+
+	@Test public void runRoundRobin() throws Exception {
+		Driver driver = new Driver( 1, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.setTimeQuantum( 8 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// The process should have been preempted and restored at least once
+		assertTrue( driver.getContextSwitches()[0] > 0 );
+	}
+
+	@Test public void runMLFQ() throws Exception {
+		Driver driver = new Driver( 1, this.disk, 16, 100, 100, CPUSchedulingPolicy.MLFQ );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// The processes outlast the quantum of the top level, so they are preempted and moved down
+		assertTrue( driver.getContextSwitches()[0] > 0 );
+	}
+
+	@Test public void runSJF() throws Exception {
+		new Driver( 1, this.disk, 16, 100, 100, CPUSchedulingPolicy.SJF ).run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// Job 4 is shorter than job 1, so it runs first even though it was queued later
+		tearDown();
+		BurstHistory.INSTANCE.reset();
+		this.disk = new Memory( 2048 );
+		Driver.loadFile( this.disk, new File( ( URLDecoder.decode(
+				Objects.requireNonNull( this.getClass().getClassLoader().getResource( "Program-File.txt" ) ).getFile(),
+				"UTF-8" ) ) ) );
+		new Driver( 1, this.disk, 16, 100, 1024, CPUSchedulingPolicy.SJF ).simulate();
+		assertTrue( TaskManager.INSTANCE.getPCB( 4 ).getResponseTime() < TaskManager.INSTANCE.getPCB( 1 )
+				.getResponseTime() );
+	}
+
+	@Test public void runSRTF() throws Exception {
+		new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.SRTF ).run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// Job 4 is shorter than job 1, so it runs first even though it was queued later
+		tearDown();
+		BurstHistory.INSTANCE.reset();
+		this.disk = new Memory( 2048 );
+		Driver.loadFile( this.disk, new File( ( URLDecoder.decode(
+				Objects.requireNonNull( this.getClass().getClassLoader().getResource( "Program-File.txt" ) ).getFile(),
+				"UTF-8" ) ) ) );
+		new Driver( 1, this.disk, 16, 100, 1024, CPUSchedulingPolicy.SRTF ).simulate();
+		assertTrue( TaskManager.INSTANCE.getPCB( 4 ).getResponseTime() < TaskManager.INSTANCE.getPCB( 1 )
+				.getResponseTime() );
+	}
+
+	@Test public void runBatchAdmission() throws Exception {
+		// Both jobs fit in RAM at once, so they are admitted and loaded in parallel in the first pass
+		Driver driver = new Driver( 4, this.disk, 16, 100, 200, CPUSchedulingPolicy.FCFS );
+		driver.setBatchAdmission( true );
+		driver.setLoaderThreads( 2 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+	}
+
+	@Test public void runEDF() throws Exception {
+		assertFalse( TaskManager.INSTANCE.getPCB( 1 ).hasDeadline() );
+		assertEquals( 0x2710, TaskManager.INSTANCE.getPCB( 2 ).getDeadline() );
+		new Driver( 1, this.disk, 16, 100, 100, CPUSchedulingPolicy.EDF ).run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// The job with a deadline is run first
+		assertTrue( TaskManager.INSTANCE.getPCB( 2 ).getResponseTime() < TaskManager.INSTANCE.getPCB( 1 )
+				.getResponseTime() );
+	}
+
+	@Test public void runStride() throws Exception {
+		assertEquals( 1, TaskManager.INSTANCE.getPCB( 1 ).getGroup() );
+		assertEquals( 2, TaskManager.INSTANCE.getPCB( 2 ).getGroup() );
+		Driver driver = new Driver( 1, this.disk, 16, 100, 100, CPUSchedulingPolicy.Stride );
+		driver.setTickets( 1, 300 );
+		driver.setTimeQuantum( 8 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		assertEquals( 0.75, driver.getTargetShares().get( 1 ), 0 );
+		// Every instruction has been charged to a group by the end of the run
+		Map<Integer, Double> shares = driver.getShareHistory().values().stream().reduce( ( a, b ) -> b ).get();
+		assertEquals( 1, shares.get( 1 ) + shares.get( 2 ), 0.0001 );
+	}
+
+	@Test public void runWorkStealing() throws Exception {
+		Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.enableWorkStealing();
+		driver.setTimeQuantum( 4 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		assertTrue( driver.getAverageDispatchLatency() > 0 );
+	}
+
+	@Test public void stealFromSkewedQueue() throws Exception {
+		MMU mmu = new MMU( new Memory( 1024 ) );
+		CPU[] cpus = { new CPU( 0, mmu, 16, 100 ), new CPU( 1, mmu, 16, 100 ) };
+		for ( CPU cpu : cpus ) {
+			cpu.enableWorkStealing( cpus );
+		}
+		CountDownLatch terminated = new CountDownLatch( 4 );
+		cpus[1].setProcessListener( pcb -> terminated.countDown() );
+		// Every process is queued on CPU 0, which never runs, so CPU 1 has to steal all of them
+		for ( int pid = 101; pid <= 104; pid++ ) {
+			TaskManager.INSTANCE.addPCB( pid, 0, 10, 0, 0, 0, 1 );
+			PCB pcb = TaskManager.INSTANCE.getPCB( pid );
+			mmu.mapMemory( pcb );
+			for ( int i = 0; i < pcb.getInstructionsLength() - 1; i++ ) {
+				mmu.write( pcb, i, new Word( "0x13000000" ) ); // NOP
+			}
+			mmu.write( pcb, pcb.getInstructionsLength() - 1, new Word( "0x92000000" ) ); // HLT
+			pcb.setStatus( PCB.Status.READY );
+			cpus[0].enqueue( pcb );
+		}
+		new Thread( cpus[1] ).start();
+		assertTrue( terminated.await( 10, TimeUnit.SECONDS ) );
+		cpus[1].signalShutdown();
+		cpus[1].awaitShutdown();
+		assertEquals( 0, cpus[0].getQueueLength() );
+		assertEquals( 0, cpus[0].getSteals() );
+		assertEquals( 4, cpus[1].getSteals() );
+	}
+
+	@Test public void runLoadBalancing() throws Exception {
+		Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.enableWorkStealing();
+		driver.enableLoadBalancing( 10000 );
+		driver.setTimeQuantum( 4 );
+		driver.run();
+		// The two jobs can't be skewed enough to be migrated, so the migrations themselves are tested in
+		// Test_LoadBalancer
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+	}
+
+	@Test( expected = IllegalStateException.class ) public void loadBalancingNeedsWorkStealing() {
+		new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin ).enableLoadBalancing( 10000 );
+	}
+
+	@Test( expected = IllegalStateException.class ) public void workStealingNeedsFIFO() {
+		new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.SJF ).enableWorkStealing();
+	}
+
+	@Test public void handoffLatency() throws Exception {
+		Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.FCFS );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// Both processes were handed to a CPU, and the CPU started running them
+		assertTrue( driver.getAverageHandoffLatency() > 0 );
+	}
+
+	@Test public void runCarrierThreads() throws Exception {
+		// A thousand CPUs share a single carrier thread, and produce the same output as with a thread each
+		Driver driver = new Driver( 1000, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.setCarrierThreads( 1 );
+		driver.setTimeQuantum( 4 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+	}
+
+	@Test public void simulate() throws Exception {
+		File file = new File( ( URLDecoder.decode(
+				Objects.requireNonNull( this.getClass().getClassLoader().getResource( "Test-File.txt" ) ).getFile(),
+				"UTF-8" ) ) );
+		long[][] times = new long[2][];
+		for ( int run = 0; run < times.length; run++ ) {
+			if ( run > 0 ) {
+				tearDown();
+				this.disk = new Memory( 150 );
+				Driver.loadFile( this.disk, file );
+			}
+			Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+			driver.setTimeQuantum( 4 );
+			driver.simulate();
+			assertFalse( Clock.INSTANCE.isLogical() );
+			assertEquals( this.disk.read( 43 ).getData(), 228 );
+			PCB first = TaskManager.INSTANCE.getPCB( 1 ), second = TaskManager.INSTANCE.getPCB( 2 );
+			times[run] = new long[] { first.getElapsedWaitTime(), first.getElapsedRunTime(), second.getElapsedWaitTime(),
+					second.getElapsedRunTime(), driver.getIdleTimes()[0], driver.getExecuteTimes()[1] };
+		}
+		// Simulated runs are timed in cycles, so they are exactly the same every time
+		assertArrayEquals( times[0], times[1] );
+		assertTrue( times[0][1] >= TaskManager.INSTANCE.getPCB( 1 ).getExecutionCount() );
+	}
+
+	@Test public void runAsyncIO() throws Exception {
+		Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.FCFS );
+		driver.setDMAThreads( 1 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// Every I/O instruction blocked its process and switched it out
+		int io = 0, contextSwitches = 0;
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			io += pcb.getNumIO();
+		}
+		for ( int cpuSwitches : driver.getContextSwitches() ) {
+			contextSwitches += cpuSwitches;
+		}
+		assertTrue( io > 0 );
+		assertEquals( io, contextSwitches );
+		assertTrue( driver.getIOOverlap() >= 0 && driver.getIOOverlap() <= 1 );
+	}
+
+	@Test public void runSharedDMAChannels() throws Exception {
+		Driver driver = new Driver( 4, this.disk, 16, 100, 100, CPUSchedulingPolicy.FCFS );
+		driver.setDMAThreads( 2 );
+		driver.setDMAQueuePolicy( DMAQueuePolicy.Priority );
+		driver.setDMALatency( 20000 );
+		driver.setDMABandwidth( 100000000 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		int io = 0;
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			io += pcb.getNumIO();
+		}
+		// Every transfer was queued once, and held its channel for at least the latency
+		assertEquals( io, driver.getDMAQueueDepths().getCount() );
+		assertEquals( io, driver.getDMAServiceTimes().getCount() );
+		assertTrue( driver.getDMAServiceTimes().getMean() >= 20000 );
+		assertTrue( driver.getDMAQueueDepths().getMax() < io );
+	}
+
+	@Test public void chargeCombinedWrites() throws Exception {
+		// A job that writes its whole output buffer, whose writes are all combined and only flushed when it halts
+		File file = File.createTempFile( "Writes", ".txt" );
+		file.deleteOnExit();
+		try ( PrintStream out = new PrintStream( new FileOutputStream( file ) ) ) {
+			out.println( "// JOB 1 9 1" );
+			for ( int address = 0x28; address <= 0x44; address += 4 ) {
+				out.printf( "0xC100%04X%n", address ); // WR
+			}
+			out.println( "0x92000000" ); // HLT
+			out.println( "// Data 1 8 1" );
+			for ( int i = 0; i < 10; i++ ) {
+				out.println( "0x00000001" );
+			}
+			out.println( "// END" );
+		}
+		tearDown();
+		this.disk = new Memory( 150 );
+		Driver.loadFile( this.disk, file );
+		Driver driver = new Driver( 1, this.disk, 16, 100, 100, CPUSchedulingPolicy.FCFS );
+		driver.setDMAThreads( 1 );
+		driver.setDMALatency( 20000 );
+		driver.setDMABandwidth( 1000 );
+		driver.run();
+		assertEquals( 8, TaskManager.INSTANCE.getPCB( 1 ).getNumIO() );
+		assertEquals( 8, driver.getDMAServiceTimes().getCount() );
+		// Every write was charged for its word, even though none of them moved it
+		assertTrue( driver.getDMAServiceTimes().getMean() >= 20000 + 1000000000 / 1000 );
+	}
+
+	@Test public void interrupts() throws Exception {
+		Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.setDMAThreads( 1 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		int io = 0;
+		for ( PCB pcb : TaskManager.INSTANCE ) {
+			io += pcb.getNumIO();
+		}
+		// Completions that were raised before the CPU handled them are handled together
+		long completions = driver.getInterrupts( Interrupt.IO_COMPLETION );
+		assertTrue( completions > 0 && completions <= io );
+		assertTrue( driver.getAverageInterruptLatency( Interrupt.IO_COMPLETION ) >= 0 );
+		assertEquals( 0, driver.getPageFaults() );
+	}
+
+	@Test public void timerInterrupts() throws Exception {
+		Driver driver = new Driver( 1, this.disk, 16, 100, 100, CPUSchedulingPolicy.FCFS );
+		driver.setTimeQuantumNanos( 100 );
+		driver.setBatchSize( 8 );
+		driver.simulate();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// The timer is only checked at the end of a batch, so it is handled up to a batch late
+		assertTrue( driver.getInterrupts( Interrupt.TIMER ) > 0 );
+		assertTrue( driver.getAverageInterruptLatency( Interrupt.TIMER ) >= 0 );
+		assertEquals( driver.getInterrupts( Interrupt.TIMER ), driver.getContextSwitches()[0] );
+	}
+
+	@Test public void affinity() throws Exception {
+		Driver driver = new Driver( 1, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.setAffinityWait( 1000000 );
+		driver.simulate();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// Every process is resumed on the only CPU, and the cache is still warm when nothing ran in between
+		assertTrue( driver.getContextSwitches()[0] > 0 );
+		assertEquals( 1, driver.getAffinityHitRate(), 0 );
+		assertTrue( driver.getWarmStarts() > 0 );
+		assertEquals( 100L * driver.getWarmStarts(), driver.getCacheWordsSaved() );
+	}
+
+	@Test public void affinityOnTwoCPUs() throws Exception {
+		File file = new File( ( URLDecoder.decode(
+				Objects.requireNonNull( this.getClass().getClassLoader().getResource( "Program-File.txt" ) ).getFile(),
+				"UTF-8" ) ) );
+		double[] hitRates = new double[2];
+		for ( int run = 0; run < hitRates.length; run++ ) {
+			tearDown();
+			this.disk = new Memory( 2048 );
+			Driver.loadFile( this.disk, file );
+			// Every job fits in RAM, so there are always more ready processes than CPUs
+			Driver driver = new Driver( 2, this.disk, 16, 100, 1024, CPUSchedulingPolicy.RoundRobin );
+			driver.setTimeQuantum( 8 );
+			driver.setAffinityWait( run == 0 ? 0 : 1000 );
+			driver.simulate();
+			assertTrue( driver.getContextSwitches()[0] > 0 && driver.getContextSwitches()[1] > 0 );
+			hitRates[run] = driver.getAffinityHitRate();
+		}
+		// Without affinity, a preempted process resumes on whichever CPU is free first
+		assertTrue( hitRates[0] < 1 );
+		// With affinity, every preempted process resumes on the CPU it last ran on
+		assertEquals( 1, hitRates[1], 0 );
+	}
+
+	@Test public void runAffinity() throws Exception {
+		Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.setAffinityWait( 50000 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		assertTrue( driver.getAffinityHitRate() >= 0 && driver.getAffinityHitRate() <= 1 );
+	}
+
+	@Test public void elastic() throws Exception {
+		Driver driver = new Driver( 4, this.disk, 16, 100, 100, CPUSchedulingPolicy.FCFS );
+		driver.setElasticCPUs( 1, 1 );
+		driver.simulate();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// The CPUs beyond the maximum are never used
+		assertEquals( 1, driver.getPeakCPUs() );
+		assertTrue( driver.getExecuteTimes()[0] > 0 );
+		assertEquals( 0, driver.getExecuteTimes()[1] );
+		assertEquals( driver.getThroughput(), driver.getProcessesPerCPUSecond(), 0.0001 );
+	}
+
+	@Test public void elasticGrows() throws Exception {
+		// Both processes fit in RAM at once
+		Driver driver = new Driver( 2, this.disk, 16, 100, 200, CPUSchedulingPolicy.RoundRobin );
+		driver.setElasticCPUs( 1, 2, 10 );
+		driver.setTimeQuantum( 4 );
+		driver.setBatchSize( 4 );
+		driver.simulate();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		// The second process waited behind the first on a busy CPU, so the second CPU was started
+		assertEquals( 2, driver.getPeakCPUs() );
+		assertTrue( driver.getExecuteTimes()[1] > 0 );
+	}
+
+	@Test public void runElastic() throws Exception {
+		Driver driver = new Driver( 4, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.setElasticCPUs( 1, 4 );
+		driver.setTimeQuantum( 4 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		assertTrue( driver.getPeakCPUs() >= 1 && driver.getPeakCPUs() <= 4 );
+		assertTrue( driver.getThroughput() > 0 );
+		// Active CPUs are only counted while they are active
+		assertTrue( driver.getProcessesPerCPUSecond() >= driver.getThroughput() / 4 );
+	}
+
+	@Test( expected = IllegalArgumentException.class ) public void elasticBounds() {
+		new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.FCFS ).setElasticCPUs( 1, 3 );
+	}
+
+	@Test( expected = IllegalStateException.class ) public void elasticRejectsWorkStealing() {
+		Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.FCFS );
+		driver.enableWorkStealing();
+		driver.setElasticCPUs( 1, 2 );
+	}
+
+	@Test public void runBusySpin() throws Exception {
+		Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+		driver.setIdleStrategy( IdleStrategy.BUSY_SPIN );
+		driver.setTimeQuantum( 4 );
+		driver.run();
+		assertEquals( this.disk.read( 43 ).getData(), 228 );
+		assertTrue( driver.getHostCPUTime() > 0 );
+	}
+
+	@Test public void idleHostTime() throws Exception {
+		File file = new File( ( URLDecoder.decode(
+				Objects.requireNonNull( this.getClass().getClassLoader().getResource( "Test-File.txt" ) ).getFile(),
+				"UTF-8" ) ) );
+		IdleStrategy[] strategies = { IdleStrategy.BUSY_SPIN, IdleStrategy.BACKOFF, IdleStrategy.BLOCK };
+		long[] hostTimes = new long[strategies.length];
+		for ( int run = 0; run < strategies.length; run++ ) {
+			if ( run > 0 ) {
+				tearDown();
+				this.disk = new Memory( 150 );
+				Driver.loadFile( this.disk, file );
+			}
+			// The CPUs look for processes to steal while the slow transfers keep them idle
+			Driver driver = new Driver( 2, this.disk, 16, 100, 100, CPUSchedulingPolicy.RoundRobin );
+			driver.enableWorkStealing();
+			driver.setDMAThreads( 1 );
+			driver.setDMALatency( 2000000 );
+			driver.setIdleStrategy( strategies[run], IdleStrategy.BLOCK );
+			driver.setTimeQuantum( 4 );
+			driver.run();
+			assertEquals( this.disk.read( 43 ).getData(), 228 );
+			hostTimes[run] = driver.getHostCPUTime();
+		}
+		// The host CPU time can't be compared on a JVM that doesn't measure it
+		Assume.assumeTrue( hostTimes[0] >= 0 );
+		// Backing off ends up parking, so it burns far less host CPU time than spinning
+		assertTrue( hostTimes[1] < hostTimes[0] / 4 );
+		assertTrue( hostTimes[2] < hostTimes[0] / 4 );
+	}
 }
@@ -0,0 +1,79 @@
+package yeezus.driver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import yeezus.cpu.CPU;
+import yeezus.memory.MMU;
+import yeezus.memory.Memory;
+import yeezus.pcb.TaskManager;
+
+import static org.junit.Assert.*;
+
+public class Test_LoadBalancer {
+
+	private CPU[] cpus;
+
+	@Before public void setUp() {
+		MMU mmu = new MMU( new Memory( 1024 ) );
+		this.cpus = new CPU[3];
+		for ( int i = 0; i < this.cpus.length; i++ ) {
+			this.cpus[i] = new CPU( i, mmu, 16, 100 );
+		}
+		for ( CPU cpu : this.cpus ) {
+			cpu.enableWorkStealing( this.cpus );
+		}
+		for ( int pid = 1; pid <= 6; pid++ ) {
+			TaskManager.INSTANCE.addPCB( pid, 10 * pid, 10, 0, 0, 0, 1 );
+		}
+	}
+
+	@After public void tearDown() {
+		TaskManager.INSTANCE.reset();
+		CPU.reset();
+	}
+
+	@Test public void migrate() throws Exception {
+		LoadBalancer balancer = new LoadBalancer( this.cpus, 10 );
+		balancer.start( 0 );
+		for ( int pid = 1; pid <= 4; pid++ ) {
+			this.cpus[0].enqueue( TaskManager.INSTANCE.getPCB( pid ) );
+		}
+		// Not due yet
+		balancer.balance( 5 );
+		assertEquals( 4, this.cpus[0].getQueueLength() );
+		assertEquals( 5, balancer.untilNextPass( 5 ) );
+
+		balancer.balance( 10 );
+		assertEquals( 2, this.cpus[0].getQueueLength() );
+		assertEquals( 1, this.cpus[1].getQueueLength() );
+		assertEquals( 1, this.cpus[2].getQueueLength() );
+		assertArrayEquals( new int[] { 0, 1, 1 }, balancer.getMigrations() );
+		// The processes at the back of the queue were moved
+		assertEquals( 2, this.cpus[0].dequeueLast().getPID() );
+		assertEquals( 1, this.cpus[0].dequeueLast().getPID() );
+		assertEquals( 4.0, balancer.getImbalance(), 0 );
+	}
+
+	@Test public void hysteresis() throws Exception {
+		LoadBalancer balancer = new LoadBalancer( this.cpus, 10 );
+		balancer.start( 0 );
+		this.cpus[0].enqueue( TaskManager.INSTANCE.getPCB( 1 ) );
+		this.cpus[0].enqueue( TaskManager.INSTANCE.getPCB( 2 ) );
+		// A difference of 2 doesn't start migrations
+		balancer.balance( 10 );
+		assertEquals( 2, this.cpus[0].getQueueLength() );
+		assertArrayEquals( new int[] { 0, 0, 0 }, balancer.getMigrations() );
+
+		this.cpus[0].enqueue( TaskManager.INSTANCE.getPCB( 3 ) );
+		balancer.balance( 20 );
+		// Once started, migrations continue down to a difference of 1
+		assertEquals( 1, this.cpus[0].getQueueLength() );
+		assertEquals( 2, balancer.getMigrations()[1] + balancer.getMigrations()[2] );
+		assertEquals( 2.5, balancer.getImbalance(), 0 );
+	}
+
+	@Test( expected = IllegalArgumentException.class ) public void watermarks() {
+		new LoadBalancer( this.cpus, 10, 1, 1 );
+	}
+}
@@ -13,6 +13,8 @@ import java.net.URLDecoder;
 import java.util.Objects;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Mark Zeagler
@@ -53,6 +55,79 @@ public class Test_Scheduler {
 		assertEquals( PCB.Status.READY, pcb.getStatus() );
 	}
 
+	@Test public void testBatchAdmission() {
+		Scheduler scheduler = new Scheduler( this.mmu, this.disk, this.taskManager, CPUSchedulingPolicy.FCFS );
+		scheduler.setBatchAdmission( true );
+		scheduler.run();
+		assertTrue( this.taskManager.getReadyQueue().size() > 1 );
+		// Jobs are admitted in order until the next one doesn't fit
+		int pid = 1;
+		for ( PCB pcb : this.taskManager.getReadyQueue() ) {
+			assertEquals( pid++, pcb.getPID() );
+		}
+		assertTrue( this.taskManager.getJobQueue().peek().getTotalSize() > this.mmu.getFreeSpace() );
+	}
+
+	@Test public void testParallelLoad() {
+		Scheduler scheduler = new Scheduler( this.mmu, this.disk, this.taskManager, CPUSchedulingPolicy.FCFS );
+		scheduler.setBatchAdmission( true );
+		scheduler.setLoaderThreads( 2 );
+		try {
+			scheduler.run();
+		} finally {
+			scheduler.shutdown();
+		}
+		// Several jobs were admitted in a single pass, and every one of them was copied into RAM
+		assertTrue( this.taskManager.getReadyQueue().size() > 1 );
+		for ( PCB pcb : this.taskManager.getReadyQueue() ) {
+			for ( int i = 0; i < pcb.getTotalSize(); i++ ) {
+				assertEquals( this.disk.read( pcb.getStartDiskAddress() + i ), this.mmu.read( pcb, i ) );
+			}
+		}
+	}
+
+	@Test public void testBestFit() {
+		Scheduler scheduler = new Scheduler( this.mmu, this.disk, this.taskManager, CPUSchedulingPolicy.FCFS );
+		scheduler.setBatchAdmission( true );
+		scheduler.setAdmissionPolicy( AdmissionPolicy.BestFit );
+		scheduler.setFairnessBound( Integer.MAX_VALUE );
+		scheduler.run();
+		// No job that is left would have fit
+		for ( PCB pcb : this.taskManager.getJobQueue() ) {
+			assertTrue( pcb.getTotalSize() > this.mmu.getFreeSpace() );
+		}
+		for ( PCB pcb : this.taskManager.getReadyQueue() ) {
+			assertEquals( "0x" + String.format( "%08X", this.disk.read( pcb.getStartDiskAddress() ).getData() ),
+					this.mmu.read( pcb, 0 ).toString() );
+		}
+	}
+
+	@Test public void testFairnessBound() {
+		Scheduler scheduler = new Scheduler( this.mmu, this.disk, this.taskManager, CPUSchedulingPolicy.FCFS );
+		scheduler.setBatchAdmission( true );
+		scheduler.setAdmissionPolicy( AdmissionPolicy.BestFit );
+		scheduler.setFairnessBound( 0 );
+		scheduler.run();
+		// With no skips allowed, jobs are admitted in order
+		int pid = 1;
+		for ( PCB pcb : this.taskManager.getReadyQueue() ) {
+			assertEquals( pid++, pcb.getPID() );
+		}
+	}
+
+	@Test public void testTerminated() {
+		Scheduler scheduler = new Scheduler( this.mmu, this.disk, this.taskManager, CPUSchedulingPolicy.FCFS );
+		scheduler.run();
+		PCB pcb = this.taskManager.getPCB( 1 );
+		pcb.setStatus( PCB.Status.TERMINATED );
+		// Only the processes handed over are removed from the RAM
+		scheduler.run();
+		assertTrue( this.mmu.processMapped( pcb ) );
+		scheduler.processTerminated( pcb );
+		scheduler.run();
+		assertFalse( this.mmu.processMapped( pcb ) );
+	}
+
 	@After public void tearDown() {
 		this.taskManager.reset();
 	}
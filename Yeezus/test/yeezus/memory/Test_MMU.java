@@ -3,8 +3,11 @@ package yeezus.memory;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import yeezus.pcb.PCB;
 import yeezus.pcb.TaskManager;
 
+import java.util.concurrent.CountDownLatch;
+
 import static org.junit.Assert.*;
 
 public class Test_MMU {
@@ -75,4 +78,73 @@ public class Test_MMU {
 	@After public void tearDown() {
 		TaskManager.INSTANCE.reset();
 	}
+
+	@Test public void testLoadStore() {
+		Memory disk = new Memory( 200 );
+		for ( int i = 0; i < disk.getCapacity(); i++ ) {
+			disk.write( i, new Word( i ) );
+		}
+		// Free the start of RAM while the rest is used, so that process 2 is mapped to two separate blocks
+		TaskManager.INSTANCE.addPCB( 1, 0, 10, 0, 0, 0, 1 );
+		TaskManager.INSTANCE.addPCB( 2, 50, 20, 0, 0, 0, 1 );
+		TaskManager.INSTANCE.addPCB( 3, 100, 1004, 0, 0, 0, 1 );
+		assertTrue( this.mmu.mapMemory( TaskManager.INSTANCE.getPCB( 1 ) ) );
+		assertTrue( this.mmu.mapMemory( TaskManager.INSTANCE.getPCB( 3 ) ) );
+		assertEquals( 10, this.mmu.getFreeSpace() );
+		this.mmu.terminateProcessMemory( TaskManager.INSTANCE.getPCB( 1 ) );
+		assertEquals( 20, this.mmu.getFreeSpace() );
+		assertTrue( this.mmu.mapMemory( TaskManager.INSTANCE.getPCB( 2 ) ) );
+
+		this.mmu.load( TaskManager.INSTANCE.getPCB( 2 ), disk );
+		for ( int i = 0; i < 20; i++ ) {
+			assertEquals( 50 + i, this.mmu.read( TaskManager.INSTANCE.getPCB( 2 ), i ).getData() );
+			this.mmu.write( TaskManager.INSTANCE.getPCB( 2 ), i, new Word( i * i ) );
+		}
+		this.mmu.store( TaskManager.INSTANCE.getPCB( 2 ), disk );
+		for ( int i = 0; i < 20; i++ ) {
+			assertEquals( i * i, disk.read( 50 + i ).getData() );
+		}
+		assertEquals( 49, disk.read( 49 ).getData() );
+		assertEquals( 70, disk.read( 70 ).getData() );
+	}
+
+	@Test public void testTerminateWaitsForStore() throws Exception {
+		TaskManager.INSTANCE.addPCB( 1, 0, 10, 0, 0, 0, 1 );
+		PCB pcb = TaskManager.INSTANCE.getPCB( 1 );
+		assertTrue( this.mmu.mapMemory( pcb ) );
+		for ( int i = 0; i < 10; i++ ) {
+			this.mmu.write( pcb, i, new Word( i + 1 ) );
+		}
+		// A disk that holds up the store half way through the copy
+		CountDownLatch copying = new CountDownLatch( 1 ), release = new CountDownLatch( 1 );
+		Memory disk = new Memory( 10 ) {
+			@Override public void copy( Memory source, int sourceAddress, int destinationAddress, int length ) {
+				copying.countDown();
+				try {
+					release.await();
+				} catch ( InterruptedException e ) {
+					throw new IllegalStateException( e );
+				}
+				super.copy( source, sourceAddress, destinationAddress, length );
+			}
+		};
+		Thread store = new Thread( () -> this.mmu.store( pcb, disk ) );
+		store.start();
+		copying.await();
+		Thread terminate = new Thread( () -> this.mmu.terminateProcessMemory( pcb ) );
+		terminate.start();
+		terminate.join( 100 );
+		// The frames stay mapped, so no other process can be given them while they are copied
+		assertTrue( terminate.isAlive() );
+		assertTrue( this.mmu.processMapped( pcb ) );
+		assertEquals( 1014, this.mmu.getFreeSpace() );
+
+		release.countDown();
+		store.join();
+		terminate.join();
+		assertFalse( this.mmu.processMapped( pcb ) );
+		for ( int i = 0; i < 10; i++ ) {
+			assertEquals( i + 1, disk.read( i ).getData() );
+		}
+	}
 }
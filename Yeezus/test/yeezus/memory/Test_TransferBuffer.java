@@ -0,0 +1,81 @@
+package yeezus.memory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import yeezus.pcb.PCB;
+import yeezus.pcb.TaskManager;
+
+import static org.junit.Assert.assertEquals;
+
+public class Test_TransferBuffer {
+
+	private MMU mmu;
+	private PCB pcb;
+	private TransferBuffer buffer;
+
+	@Before public void setup() {
+		this.mmu = new MMU( new Memory( 64 ) );
+		TaskManager.INSTANCE.addPCB( 1, 0, 32, 0, 0, 0, 1 );
+		this.pcb = TaskManager.INSTANCE.getPCB( 1 );
+		this.mmu.mapMemory( this.pcb );
+		for ( int i = 0; i < 32; i++ ) {
+			this.mmu.write( this.pcb, i, new Word( i ) );
+		}
+		this.buffer = this.pcb.getTransferBuffer();
+	}
+
+	@After public void tearDown() {
+		TaskManager.INSTANCE.reset();
+	}
+
+	@Test public void sequentialReadsAreCoalesced() {
+		for ( int i = 0; i < 17; i++ ) {
+			assertEquals( i, this.buffer.read( this.mmu, this.pcb, i ).getData() );
+		}
+		// The first read can't be known to be sequential, and every read after it starts a burst of eight
+		assertEquals( 3, this.buffer.getTransfers() );
+		assertEquals( 17, this.buffer.getWords() );
+
+		// Scattered reads transfer one word each
+		this.buffer.read( this.mmu, this.pcb, 30 );
+		this.buffer.read( this.mmu, this.pcb, 2 );
+		assertEquals( 5, this.buffer.getTransfers() );
+	}
+
+	@Test public void burstStopsAtEndOfProcess() {
+		this.buffer.read( this.mmu, this.pcb, 27 );
+		this.buffer.read( this.mmu, this.pcb, 28 );
+		assertEquals( 31, this.buffer.read( this.mmu, this.pcb, 31 ).getData() );
+		assertEquals( 5, this.buffer.getWords() );
+	}
+
+	@Test public void writesAreCombined() {
+		for ( int i = 0; i < 8; i++ ) {
+			this.buffer.write( this.mmu, this.pcb, i, new Word( 100 + i ) );
+		}
+		assertEquals( 0, this.mmu.read( this.pcb, 0 ).getData() );
+		this.buffer.flush( this.mmu, this.pcb );
+		for ( int i = 0; i < 8; i++ ) {
+			assertEquals( 100 + i, this.mmu.read( this.pcb, i ).getData() );
+		}
+		assertEquals( 1, this.buffer.getTransfers() );
+
+		// Flushing twice doesn't transfer again
+		this.buffer.flush( this.mmu, this.pcb );
+		assertEquals( 1, this.buffer.getTransfers() );
+	}
+
+	@Test public void readsSeeWrites() {
+		// Stage a burst, then write over a staged word
+		this.buffer.read( this.mmu, this.pcb, 0 );
+		this.buffer.read( this.mmu, this.pcb, 1 );
+		this.buffer.write( this.mmu, this.pcb, 3, new Word( 300 ) );
+		assertEquals( 300, this.buffer.read( this.mmu, this.pcb, 3 ).getData() );
+
+		// A write outside the staged words is flushed before the next burst is read
+		this.buffer.write( this.mmu, this.pcb, 20, new Word( 2000 ) );
+		assertEquals( 2000, this.buffer.read( this.mmu, this.pcb, 20 ).getData() );
+		assertEquals( 2000, this.mmu.read( this.pcb, 20 ).getData() );
+	}
+}
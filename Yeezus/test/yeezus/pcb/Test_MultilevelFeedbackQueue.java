@@ -0,0 +1,68 @@
+package yeezus.pcb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class Test_MultilevelFeedbackQueue {
+
+	private MultilevelFeedbackQueue queue;
+	private PCB cpuBound, ioBound;
+
+	@Before public void setUp() {
+		this.queue = new MultilevelFeedbackQueue( 3, 8, 0 );
+		this.cpuBound = new PCB( 1, 0, 10, 0, 0, 0, 1 );
+		this.ioBound = new PCB( 2, 10, 10, 0, 0, 0, 1 );
+	}
+
+	@Test public void quanta() {
+		assertEquals( 8, this.queue.getQuantum( 0 ) );
+		assertEquals( 16, this.queue.getQuantum( 1 ) );
+		assertEquals( 32, this.queue.getQuantum( 2 ) );
+	}
+
+	@Test public void demote() {
+		for ( int level = 1; level <= 3; level++ ) {
+			this.cpuBound.startBurst();
+			this.cpuBound.addExecutionCount( this.queue.getQuantum( this.cpuBound.getQueueLevel() ) );
+			this.queue.feedback( this.cpuBound, this.queue.getQuantum( this.cpuBound.getQueueLevel() ) );
+			// Can't be demoted past the lowest level
+			assertEquals( Math.min( level, 2 ), this.cpuBound.getQueueLevel() );
+		}
+	}
+
+	@Test public void promote() {
+		this.ioBound.setQueueLevel( 2 );
+		this.ioBound.startBurst();
+		this.ioBound.addExecutionCount( 32 );
+		for ( int i = 0; i < 4; i++ ) {
+			this.ioBound.incNumIO();
+		}
+		this.queue.feedback( this.ioBound, 32 );
+		assertEquals( 1, this.ioBound.getQueueLevel() );
+	}
+
+	@Test public void order() {
+		this.cpuBound.setQueueLevel( 1 );
+		this.queue.add( this.cpuBound );
+		this.queue.add( this.ioBound );
+		assertEquals( 2, this.queue.size() );
+		assertEquals( this.ioBound, this.queue.poll() );
+		assertEquals( this.cpuBound, this.queue.poll() );
+		assertEquals( null, this.queue.poll() );
+	}
+
+	@Test public void boost() {
+		this.cpuBound.setQueueLevel( 2 );
+		this.queue.add( this.cpuBound );
+		this.queue.boost();
+		assertEquals( 0, this.cpuBound.getQueueLevel() );
+		assertEquals( 1, this.queue.getBoosts() );
+		assertEquals( this.cpuBound, this.queue.poll() );
+	}
+}
@@ -105,4 +105,35 @@ public class Test_PCB {
 		assertNotEquals( timestamp, this.pcb.getElapsedRunTime() );
 	}
 
+	@Test public void getRemainingBurst() {
+		assertEquals( 6, this.pcb.getRemainingBurst(), 0 );
+		this.pcb.addExecutionCount( 4 );
+		assertEquals( 2, this.pcb.getRemainingBurst(), 0 );
+		this.pcb.addExecutionCount( 4 );
+		assertEquals( 1, this.pcb.getRemainingBurst(), 0 );
+	}
+
+	@Test public void burstHistory() {
+		BurstHistory.INSTANCE.reset();
+		assertEquals( 6, BurstHistory.INSTANCE.estimate( this.pcb ), 0 );
+		this.pcb.addExecutionCount( 10 );
+		BurstHistory.INSTANCE.record( this.pcb );
+		assertEquals( 8, BurstHistory.INSTANCE.estimate( this.pcb ), 0 );
+		BurstHistory.INSTANCE.reset();
+	}
+
+	@Test public void aging() throws InterruptedException {
+		Thread.sleep( 5 );
+		PCB younger = new PCB( 15, 10, 6, 10, 13, 10, 3 );
+		assertEquals( 2, this.pcb.getAgingKey(), 0 );
+		this.pcb.setAgingRate( 1 );
+		younger.setAgingRate( 1 );
+		// The older process has waited at least 5 ms longer, so it has passed the younger one
+		assertTrue( this.pcb.getEffectivePriority() >= 7 );
+		assertTrue( this.pcb.getEffectivePriority() > younger.getEffectivePriority() );
+		assertTrue( this.pcb.getAgingKey() > younger.getAgingKey() );
+		// Running processes don't age
+		this.pcb.setStatus( PCB.Status.RUNNING );
+		assertEquals( 2, this.pcb.getEffectivePriority(), 0 );
+	}
 }
@@ -0,0 +1,114 @@
+package yeezus.pcb;
+
+import org.junit.Test;
+import yeezus.Clock;
+import yeezus.driver.CPUSchedulingPolicy;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class Test_ProcessQueue {
+
+	@Test public void firstComeFirstServed() {
+		ProcessQueue queue = new ProcessQueue();
+		for ( int i = 1; i <= 20; i++ ) {
+			queue.add( new PCB( i, 0, 10, 0, 0, 0, i % 3 ) );
+		}
+		for ( int i = 1; i <= 20; i++ ) {
+			assertEquals( i, queue.poll().getPID() );
+		}
+		assertNull( queue.poll() );
+	}
+
+	@Test public void comparatorOrder() {
+		ProcessQueue queue = new ProcessQueue( Comparator.comparingInt( PCB::getPriority ).reversed() );
+		for ( int i = 1; i <= 30; i++ ) {
+			queue.add( new PCB( i, 0, 10, 0, 0, 0, i % 3 ) );
+		}
+		int lastPriority = Integer.MAX_VALUE, lastPID = 0;
+		while ( !queue.isEmpty() ) {
+			PCB pcb = queue.poll();
+			assertTrue( pcb.getPriority() <= lastPriority );
+			if ( pcb.getPriority() == lastPriority ) {
+				// Equal processes keep the order they were added in
+				assertTrue( pcb.getPID() > lastPID );
+			}
+			lastPriority = pcb.getPriority();
+			lastPID = pcb.getPID();
+		}
+	}
+
+	@Test public void remove() {
+		ProcessQueue queue = new ProcessQueue( Comparator.comparingInt( PCB::getInstructionsLength ) );
+		PCB[] pcbs = new PCB[10];
+		for ( int i = 0; i < pcbs.length; i++ ) {
+			pcbs[i] = new PCB( i + 1, 0, ( i * 7 ) % 10, 0, 0, 0, 1 );
+			queue.add( pcbs[i] );
+		}
+		assertTrue( queue.remove( pcbs[4] ) );
+		assertFalse( queue.remove( pcbs[4] ) );
+		assertFalse( queue.contains( pcbs[4] ) );
+		assertTrue( queue.contains( pcbs[5] ) );
+		assertEquals( 9, queue.size() );
+
+		// A removed process can be added to another queue
+		new ProcessQueue().add( pcbs[4] );
+
+		int last = -1;
+		while ( !queue.isEmpty() ) {
+			int length = queue.poll().getInstructionsLength();
+			assertTrue( length >= last );
+			last = length;
+		}
+	}
+
+	@Test( expected = IllegalStateException.class ) public void addTwice() {
+		PCB pcb = new PCB( 1, 0, 10, 0, 0, 0, 1 );
+		new ProcessQueue().add( pcb );
+		new ProcessQueue().add( pcb );
+	}
+
+	@Test public void peekCount() {
+		ProcessQueue queue = new ProcessQueue( Comparator.comparingInt( PCB::getInstructionsLength ) );
+		for ( int i = 1; i <= 50; i++ ) {
+			queue.add( new PCB( i, 0, ( i * 37 ) % 50, 0, 0, 0, 1 ) );
+		}
+		List<PCB> first = queue.peek( 10 );
+		assertEquals( 10, first.size() );
+		assertEquals( 50, queue.size() );
+		for ( int i = 0; i < first.size(); i++ ) {
+			assertEquals( queue.poll(), first.get( i ) );
+		}
+		assertEquals( 40, queue.peek( 100 ).size() );
+	}
+
+	@Test public void earliestAbsoluteDeadline() {
+		Clock.INSTANCE.setLogical( true );
+		try {
+			// A arrives first with a longer relative deadline, but has to be done by 10000ns, before B's 12000ns
+			PCB a = new PCB( 1, 0, 10, 0, 0, 0, 1, 10, 0 );
+			Clock.INSTANCE.advanceTo( 7000 );
+			PCB b = new PCB( 2, 0, 10, 0, 0, 0, 1, 5, 0 );
+			PCB none = new PCB( 3, 0, 10, 0, 0, 0, 1, PCB.NO_DEADLINE, 0 );
+			assertTrue( a.getDeadline() > b.getDeadline() );
+			assertEquals( 10000, a.getAbsoluteDeadline() );
+			assertEquals( 12000, b.getAbsoluteDeadline() );
+
+			ProcessQueue queue = new ProcessQueue( CPUSchedulingPolicy.EDF.getComparator() );
+			queue.add( none );
+			queue.add( b );
+			queue.add( a );
+			assertSame( a, queue.poll() );
+			assertSame( b, queue.poll() );
+			assertSame( none, queue.poll() );
+		} finally {
+			Clock.INSTANCE.setLogical( false );
+		}
+	}
+}
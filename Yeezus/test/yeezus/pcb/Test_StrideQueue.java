@@ -0,0 +1,76 @@
+package yeezus.pcb;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Mark Zeagler
+ * @version 1.0
+ */
+public class Test_StrideQueue {
+
+	private StrideQueue queue;
+
+	@Before public void setUp() {
+		this.queue = new StrideQueue();
+		this.queue.setTickets( 1, 300 );
+		this.queue.setTickets( 2, 100 );
+		for ( int pid = 1; pid <= 4; pid++ ) {
+			this.queue.add( new PCB( pid, 0, 10, 0, 0, 0, 1, PCB.NO_DEADLINE, pid % 2 + 1 ) );
+		}
+	}
+
+	/**
+	 * Runs each process taken from the queue for the given amount of instructions, and then puts it back.
+	 */
+	private int[] run( int dispatches, int burst ) {
+		int[] executed = new int[3];
+		for ( int i = 0; i < dispatches; i++ ) {
+			PCB pcb = this.queue.poll();
+			pcb.startBurst();
+			pcb.addExecutionCount( burst );
+			executed[pcb.getGroup()] += burst;
+			this.queue.add( pcb );
+		}
+		return executed;
+	}
+
+	@Test public void proportionalShare() {
+		int[] executed = run( 400, 10 );
+		assertEquals( 0.75, (double) executed[1] / ( executed[1] + executed[2] ), 0.01 );
+		Map<Integer, Double> shares = this.queue.getShares();
+		assertEquals( 0.75, shares.get( 1 ), 0.01 );
+		assertEquals( 0.25, shares.get( 2 ), 0.01 );
+		assertEquals( 0.75, this.queue.getTargetShares().get( 1 ), 0 );
+	}
+
+	@Test public void idleGroupDoesNotSaveCredit() {
+		// Group 1 waits outside of the queue, for I/O for example, while group 2 runs alone
+		PCB[] group1 = { this.queue.poll(), this.queue.poll() };
+		for ( PCB pcb : group1 ) {
+			this.queue.charge( pcb );
+		}
+		run( 100, 10 );
+		for ( PCB pcb : group1 ) {
+			this.queue.add( pcb );
+		}
+		// Group 1 returns with the same pass as group 2, so it gets its share rather than all of the CPU
+		int[] executed = run( 40, 10 );
+		assertEquals( 0.75, (double) executed[1] / ( executed[1] + executed[2] ), 0.05 );
+	}
+
+	@Test public void chargeOnce() {
+		PCB pcb = this.queue.poll();
+		pcb.startBurst();
+		pcb.addExecutionCount( 10 );
+		this.queue.charge( pcb );
+		this.queue.charge( pcb );
+		assertEquals( 1.0, this.queue.getShares().get( pcb.getGroup() ), 0 );
+		this.queue.add( pcb );
+		assertEquals( 4, this.queue.size() );
+	}
+}
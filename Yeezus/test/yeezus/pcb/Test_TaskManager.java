@@ -51,4 +51,17 @@ public class Test_TaskManager {
 		taskManager.getPCB( 3 );
 	}
 
+	@Test public void setReadyQueue() {
+		taskManager.addPCB( 15, 40, 6, 10, 25, 26, 1 );
+		taskManager.setReadyQueue( new ProcessQueue() );
+		for ( PCB pcb = taskManager.getJobQueue().poll(); pcb != null; pcb = taskManager.getJobQueue().poll() ) {
+			taskManager.getReadyQueue().add( pcb );
+		}
+		// The ready processes leave the old queue, so they can join the new one
+		taskManager.setReadyQueue( new ProcessQueue() );
+		assertEquals( 2, taskManager.getReadyQueue().size() );
+		assertSame( taskManager.getPCB( 14 ), taskManager.getReadyQueue().poll() );
+		assertSame( taskManager.getPCB( 15 ), taskManager.getReadyQueue().poll() );
+	}
+
 }